@@ -2,11 +2,22 @@ package hooks;
 
 import io.cucumber.java.After;
 import io.cucumber.java.AfterAll;
+import io.cucumber.java.AfterStep;
 import io.cucumber.java.Before;
 import io.cucumber.java.BeforeAll;
 import io.cucumber.java.Scenario;
+import io.cucumber.java.Status;
 import io.qameta.allure.Allure;
+import utils.AppManager;
 import utils.ConfigReader;
+import utils.JfrRecorder;
+import utils.PerfBaseline;
+import utils.PerfStats;
+import utils.ScenarioCache;
+import utils.ScenarioIds;
+import utils.ScenarioWatchdog;
+import utils.TokenPool;
+import utils.TrafficRecorder;
 import utils.WireMockManager;
 
 import java.io.ByteArrayInputStream;
@@ -16,6 +27,8 @@ public class TestHooks {
 
     private static final ThreadLocal<String> testToken = new ThreadLocal<>();
 
+    private ScenarioWatchdog watchdog;
+
     @BeforeAll
     public static void beforeAll() {
         System.out.println("=== ИНИЦИАЛИЗАЦИЯ ТЕСТОВОГО ОКРУЖЕНИЯ ===");
@@ -25,6 +38,9 @@ public class TestHooks {
             System.out.println("WireMock сервер запущен");
         }
 
+        // Если задан app.jar, приложение запускается локально (для дампов потоков при зависании)
+        AppManager.start();
+
         System.out.println("Базовый URL приложения: " + ConfigReader.getBaseUrl());
         System.out.println("API Key: " + ConfigReader.getApiKey());
     }
@@ -33,9 +49,26 @@ public class TestHooks {
     public static void afterAll() {
         System.out.println("\n=== ЗАВЕРШЕНИЕ ТЕСТОВОГО ОКРУЖЕНИЯ ===");
 
+        if (ConfigReader.isIncrementalEnabled()) {
+            ScenarioCache.save();
+        }
+
+        // Запись JFR последней фичи закрывается, пока приложение еще работает
+        JfrRecorder.finishFeature();
+
+        // В режиме watch WireMock остается прогретым между прогонами, а частичные прогоны не идут в историю perf
+        if (ConfigReader.isWatchMode()) {
+            return;
+        }
+
         if (ConfigReader.isWireMockEnabled()) {
             WireMockManager.stopServer();
         }
+        AppManager.stop();
+        TrafficRecorder.flush();
+
+        // Сравнение с историей прогонов, при регрессии сборка падает
+        PerfBaseline.checkAndRecord(PerfStats.snapshot());
     }
 
     @Before
@@ -45,6 +78,11 @@ public class TestHooks {
         System.out.println("ТЕГИ: " + scenario.getSourceTagNames());
         System.out.println("=".repeat(50));
 
+        // Запись JFR по фичам (-Djfr.enabled=true); запуск jcmd не входит в бюджет сценария
+        JfrRecorder.enterFeature(scenario.getUri());
+
+        watchdog = ScenarioWatchdog.start(scenario.getName(), ConfigReader.getScenarioTimeoutMs(scenario.getSourceTagNames()));
+
         // Генерация уникального токена для сценария, убрана, использован хардкод
         // String token = UUID.randomUUID().toString().replace("-", "").substring(0, 26).toUpperCase();
         testToken.set("A94F2C7D8E1B4A6F9C3D2E5B8A7F1C0D");
@@ -56,8 +94,20 @@ public class TestHooks {
         }
     }
 
+    @AfterStep
+    public void checkScenarioBudget() {
+        // Превышение бюджета сценария: дампы потоков в Allure и падение сценария
+        if (watchdog != null) {
+            watchdog.check();
+        }
+    }
+
     @After
     public void afterScenario(Scenario scenario) {
+        if (watchdog != null) {
+            watchdog.finish();
+        }
+
         System.out.println("\n" + "-".repeat(50));
         System.out.println("ЗАВЕРШЕН СЦЕНАРИЙ: " + scenario.getName());
         System.out.println("СТАТУС: " + scenario.getStatus());
@@ -76,6 +126,14 @@ public class TestHooks {
         }
         System.out.println("-".repeat(50) + "\n");
 
+        // Арендованные токены возвращаются в пул, после падения — выбывают
+        TokenPool.releaseLeases(!scenario.isFailed());
+
+        // Инкрементальный режим: запоминаются только прошедшие; упавшие, пропущенные и неопределенные будут запущены снова
+        if (ConfigReader.isIncrementalEnabled()) {
+            ScenarioCache.record(ScenarioIds.of(scenario.getUri(), scenario.getLine()), scenario.getStatus() == Status.PASSED);
+        }
+
         // Очистка токена
         testToken.remove();
     }
@@ -0,0 +1,25 @@
+package plugins;
+
+import io.cucumber.core.plugin.HtmlFormatter;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import utils.ForkReports;
+
+import java.io.IOException;
+
+/**
+ * Стандартный html-отчет Cucumber в файл своего форка (см. {@link ForkReports}).
+ * Подключение: plugins.ForkHtmlFormatter:target/cucumber-reports/cucumber.html
+ */
+public class ForkHtmlFormatter implements ConcurrentEventListener {
+    private final HtmlFormatter delegate;
+
+    public ForkHtmlFormatter(String path) throws IOException {
+        this.delegate = new HtmlFormatter(ForkReports.open(path));
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        delegate.setEventPublisher(publisher);
+    }
+}
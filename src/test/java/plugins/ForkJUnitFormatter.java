@@ -0,0 +1,25 @@
+package plugins;
+
+import io.cucumber.core.plugin.JUnitFormatter;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import utils.ForkReports;
+
+import java.io.IOException;
+
+/**
+ * Стандартный junit-отчет Cucumber в файл своего форка (см. {@link ForkReports}).
+ * Подключение: plugins.ForkJUnitFormatter:target/cucumber-reports/cucumber.xml
+ */
+public class ForkJUnitFormatter implements ConcurrentEventListener {
+    private final JUnitFormatter delegate;
+
+    public ForkJUnitFormatter(String path) throws IOException {
+        this.delegate = new JUnitFormatter(ForkReports.open(path));
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        delegate.setEventPublisher(publisher);
+    }
+}
@@ -0,0 +1,25 @@
+package plugins;
+
+import io.cucumber.core.plugin.JsonFormatter;
+import io.cucumber.plugin.EventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import utils.ForkReports;
+
+import java.io.IOException;
+
+/**
+ * Стандартный json-отчет Cucumber в файл своего форка (см. {@link ForkReports}).
+ * Подключение: plugins.ForkJsonFormatter:target/cucumber-reports/cucumber.json
+ */
+public class ForkJsonFormatter implements EventListener {
+    private final JsonFormatter delegate;
+
+    public ForkJsonFormatter(String path) throws IOException {
+        this.delegate = new JsonFormatter(ForkReports.open(path));
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        delegate.setEventPublisher(publisher);
+    }
+}
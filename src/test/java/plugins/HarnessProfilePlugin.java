@@ -0,0 +1,79 @@
+package plugins;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import utils.AllureReports;
+import utils.HarnessProfile;
+import utils.ScenarioIds;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Границы шагов и сценариев для {@link HarnessProfile}: события шагов приходят в потоке,
+ * который их выполняет, поэтому таймеры шага читаются из того же потока.
+ * Отчет после прогона — target/harness-profile/harness-profile.txt и результат в Allure.
+ */
+public class HarnessProfilePlugin implements ConcurrentEventListener {
+    private static final Path REPORT = Paths.get("target/harness-profile/harness-profile.txt");
+
+    private final Map<UUID, long[]> scenarios = new ConcurrentHashMap<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        if (!HarnessProfile.isEnabled()) return;
+        publisher.registerHandlerFor(TestStepStarted.class, event -> HarnessProfile.stepStarted());
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::onCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> writeReport());
+    }
+
+    private void onStepFinished(TestStepFinished event) {
+        String step = event.getTestStep() instanceof PickleStepTestStep pickleStep
+                ? pickleStep.getPattern()
+                : "хук " + ((HookTestStep) event.getTestStep()).getHookType() + " " + event.getTestStep().getCodeLocation();
+        long[] breakdown = HarnessProfile.stepFinished(step, event.getResult().getDuration().toNanos());
+
+        scenarios.merge(event.getTestCase().getId(), breakdown, (total, added) -> {
+            for (int i = 0; i < total.length; i++) total[i] += added[i];
+            return total;
+        });
+    }
+
+    private void onCaseFinished(TestCaseFinished event) {
+        TestCase testCase = event.getTestCase();
+        long[] breakdown = scenarios.remove(testCase.getId());
+        if (breakdown != null) {
+            HarnessProfile.scenarioFinished(ScenarioIds.of(testCase.getUri(), testCase.getLocation().getLine())
+                    + " " + testCase.getName(), breakdown);
+        }
+    }
+
+    private void writeReport() {
+        if (HarnessProfile.isEmpty()) return;
+
+        String report = HarnessProfile.report();
+        HarnessProfile.reset();
+        try {
+            Files.createDirectories(REPORT.getParent());
+            Files.writeString(REPORT, report, StandardCharsets.UTF_8);
+            System.out.println("Накладные расходы тестов: " + REPORT.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Не удалось записать " + REPORT + ": " + e.getMessage());
+        }
+        AllureReports.addRunResult("Накладные расходы тестов", true, Map.of("harness-profile.txt", report));
+    }
+}
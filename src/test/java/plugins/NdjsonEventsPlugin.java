@@ -0,0 +1,243 @@
+package plugins;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.messages.types.Feature;
+import io.cucumber.messages.types.GherkinDocument;
+import io.cucumber.messages.types.Tag;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.Result;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+import utils.ConfigReader;
+import utils.ForkReports;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * События прогона Cucumber в компактный NDJSON для нагрузочных прогонов с большим числом сценариев.
+ * Потоки сценариев только кладут объекты событий в ограниченную очередь (ndjson.queue.size),
+ * сериализует и пишет их один поток-писатель; при заполнении очереди потоки сценариев ждут.
+ * Отчеты html/json/junit строятся из файла после прогона: runner.NdjsonReportConverter.
+ *
+ * Подключение: plugins.NdjsonEventsPlugin:target/cucumber-reports/events.ndjson (путь с учетом форка, см. {@link ForkReports})
+ *
+ * Одна строка на событие:
+ * {"e":"run-start", "ts"} — начало прогона, ts — epoch ms;
+ * {"e":"feature", "uri", "keyword", "name", "line", "description", "tags"} — прочитан файл фичи;
+ * {"e":"case-start", "case", "uri", "line", "keyword", "name", "tags", "ts"} — начало сценария;
+ * {"e":"step", "case", "keyword", "text", "line", "location", "status", "duration", "error"} — шаг сценария;
+ * {"e":"hook", "case", "hook", "location", "status", "duration", "error"} — хук (BEFORE, AFTER, BEFORE_STEP, AFTER_STEP);
+ * {"e":"case-end", "case", "status", "duration", "error"} — итог сценария;
+ * {"e":"run-end", "ts", "error"} — конец прогона.
+ * duration — наносекунды, error — стек исключения (только у непрошедших).
+ */
+public class NdjsonEventsPlugin implements ConcurrentEventListener {
+    private static final Object END = new Object();
+    private static final int BATCH = 256;
+
+    private final Path path;
+    private final JsonGenerator generator;
+    private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(ConfigReader.getNdjsonQueueSize());
+    private final Thread writer = new Thread(this::drain, "ndjson-events-writer");
+    private final AtomicLong waitedNanos = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private long written;
+    private IOException failure;
+
+    public NdjsonEventsPlugin(String path) throws IOException {
+        this.path = ForkReports.path(path);
+        this.generator = new JsonFactory().createGenerator(ForkReports.open(path));
+        this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, this::enqueue);
+        // из потока сообщений в очередь идут только разобранные документы фич
+        publisher.registerHandlerFor(Envelope.class, envelope -> envelope.getGherkinDocument().ifPresent(this::enqueue));
+        publisher.registerHandlerFor(TestCaseStarted.class, this::enqueue);
+        publisher.registerHandlerFor(TestStepFinished.class, this::enqueue);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::enqueue);
+        publisher.registerHandlerFor(TestRunFinished.class, this::finish);
+    }
+
+    private void enqueue(Object event) {
+        if (queue.offer(event)) return;
+
+        long startedAt = System.nanoTime();
+        try {
+            queue.put(event);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lost.incrementAndGet();
+        } finally {
+            waitedNanos.addAndGet(System.nanoTime() - startedAt);
+        }
+    }
+
+    /**
+     * Последнее событие прогона: дождаться, пока писатель допишет очередь, и закрыть файл
+     */
+    private void finish(TestRunFinished event) {
+        enqueue(event);
+        enqueue(END);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure != null) {
+            System.err.println("События Cucumber записаны не полностью (" + path + "): " + failure.getMessage());
+        }
+        System.out.println(String.format(Locale.ROOT, "События Cucumber: %d записано%s, ожидание очереди %.1f мс -> %s",
+                written, lost.get() > 0 ? ", потеряно " + lost.get() : "", waitedNanos.get() / 1e6, path.toAbsolutePath()));
+    }
+
+    private void drain() {
+        List<Object> batch = new ArrayList<>(BATCH);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // прерывание писателя не должно оставить потоки сценариев ждать места в очереди
+                continue;
+            }
+            queue.drainTo(batch, BATCH - 1);
+
+            for (Object event : batch) {
+                if (event == END) {
+                    close();
+                    return;
+                }
+                // после ошибки записи очередь продолжает разбираться, чтобы не блокировать сценарии
+                if (failure != null) continue;
+                try {
+                    write(event);
+                    written++;
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            batch.clear();
+
+            if (failure == null && queue.isEmpty()) {
+                try {
+                    generator.flush();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private void close() {
+        try {
+            if (failure == null) generator.writeRaw('\n');
+            generator.close();
+        } catch (IOException e) {
+            if (failure == null) failure = e;
+        }
+    }
+
+    private void write(Object event) throws IOException {
+        generator.writeStartObject();
+        if (event instanceof TestRunStarted started) {
+            generator.writeStringField("e", "run-start");
+            generator.writeNumberField("ts", started.getInstant().toEpochMilli());
+        } else if (event instanceof GherkinDocument document) {
+            generator.writeStringField("e", "feature");
+            generator.writeStringField("uri", document.getUri().orElse(""));
+            writeFeatureHeader(document);
+        } else if (event instanceof TestCaseStarted started) {
+            TestCase testCase = started.getTestCase();
+            generator.writeStringField("e", "case-start");
+            generator.writeStringField("case", testCase.getId().toString());
+            generator.writeStringField("uri", testCase.getUri().toString());
+            generator.writeNumberField("line", testCase.getLocation().getLine());
+            generator.writeStringField("keyword", testCase.getKeyword());
+            generator.writeStringField("name", testCase.getName());
+            writeTags(testCase.getTags());
+            generator.writeNumberField("ts", started.getInstant().toEpochMilli());
+        } else if (event instanceof TestStepFinished finished) {
+            String caseId = finished.getTestCase().getId().toString();
+            if (finished.getTestStep() instanceof PickleStepTestStep step) {
+                generator.writeStringField("e", "step");
+                generator.writeStringField("case", caseId);
+                generator.writeStringField("keyword", step.getStep().getKeyword());
+                generator.writeStringField("text", step.getStep().getText());
+                generator.writeNumberField("line", step.getStep().getLine());
+            } else {
+                generator.writeStringField("e", "hook");
+                generator.writeStringField("case", caseId);
+                generator.writeStringField("hook", ((HookTestStep) finished.getTestStep()).getHookType().name());
+            }
+            generator.writeStringField("location", finished.getTestStep().getCodeLocation());
+            writeResult(finished.getResult());
+        } else if (event instanceof TestCaseFinished finished) {
+            generator.writeStringField("e", "case-end");
+            generator.writeStringField("case", finished.getTestCase().getId().toString());
+            writeResult(finished.getResult());
+        } else if (event instanceof TestRunFinished finished) {
+            generator.writeStringField("e", "run-end");
+            generator.writeNumberField("ts", finished.getInstant().toEpochMilli());
+            if (finished.getResult().getError() != null) {
+                generator.writeStringField("error", stackTrace(finished.getResult().getError()));
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private void writeResult(Result result) throws IOException {
+        generator.writeStringField("status", result.getStatus().name());
+        generator.writeNumberField("duration", result.getDuration().toNanos());
+        if (result.getError() != null) {
+            generator.writeStringField("error", stackTrace(result.getError()));
+        }
+    }
+
+    private void writeTags(List<String> tags) throws IOException {
+        generator.writeArrayFieldStart("tags");
+        for (String tag : tags) generator.writeString(tag);
+        generator.writeEndArray();
+    }
+
+    /**
+     * Ключевое слово, имя, строка, описание и теги фичи из документа, разобранного Cucumber: сам текст в событие не попадает
+     */
+    private void writeFeatureHeader(GherkinDocument document) throws IOException {
+        Feature feature = document.getFeature().orElse(null);
+        generator.writeStringField("keyword", feature != null ? feature.getKeyword() : "");
+        generator.writeStringField("name", feature != null ? feature.getName() : "");
+        generator.writeNumberField("line", feature != null ? feature.getLocation().getLine() : 0);
+        generator.writeStringField("description", feature != null ? feature.getDescription() : "");
+        writeTags(feature != null ? feature.getTags().stream().map(Tag::getName).toList() : List.of());
+    }
+
+    private static String stackTrace(Throwable error) {
+        StringWriter out = new StringWriter();
+        error.printStackTrace(new PrintWriter(out));
+        return out.toString();
+    }
+}
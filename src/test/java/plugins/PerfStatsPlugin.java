@@ -0,0 +1,24 @@
+package plugins;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import utils.PerfStats;
+
+/**
+ * Собирает длительности шагов (по шаблону шага) в {@link PerfStats}.
+ */
+public class PerfStatsPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::onStepFinished);
+    }
+
+    private void onStepFinished(TestStepFinished event) {
+        if (event.getTestStep() instanceof PickleStepTestStep step) {
+            PerfStats.recordStep(step.getPattern(), event.getResult().getDuration().toNanos());
+        }
+    }
+}
@@ -9,7 +9,7 @@ import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
 import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
 import static io.cucumber.junit.platform.engine.Constants.FILTER_TAGS_PROPERTY_NAME;
 
-@Suite
+@Suite(failIfNoTests = false)
 @IncludeEngines("cucumber")
 @SelectClasspathResource("features")
 @ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "stepdefinitions,hooks")
@@ -17,10 +17,12 @@ import static io.cucumber.junit.platform.engine.Constants.FILTER_TAGS_PROPERTY_N
         key = PLUGIN_PROPERTY_NAME,
         value =
                 "pretty," +
-                        "html:target/cucumber-reports/cucumber.html," +
-                        "json:target/cucumber-reports/cucumber.json," +
-                        "junit:target/cucumber-reports/cucumber.xml," +
-                        "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm"
+                        "plugins.ForkHtmlFormatter:target/cucumber-reports/cucumber.html," +
+                        "plugins.ForkJsonFormatter:target/cucumber-reports/cucumber.json," +
+                        "plugins.ForkJUnitFormatter:target/cucumber-reports/cucumber.xml," +
+                        "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm," +
+                        "plugins.PerfStatsPlugin," +
+                        "plugins.HarnessProfilePlugin"
 )
 @ConfigurationParameter(key = FILTER_TAGS_PROPERTY_NAME, value = "@regression")
 public class CucumberRunner {
@@ -0,0 +1,111 @@
+package runner;
+
+import io.cucumber.gherkin.GherkinParser;
+import io.cucumber.messages.types.Envelope;
+import io.cucumber.messages.types.Examples;
+import io.cucumber.messages.types.FeatureChild;
+import io.cucumber.messages.types.Pickle;
+import io.cucumber.messages.types.PickleStep;
+import io.cucumber.messages.types.RuleChild;
+import io.cucumber.messages.types.Scenario;
+import io.cucumber.messages.types.TableRow;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Сценарии (pickles) одного файла фичи: строка, шаги и сигнатура для поиска изменений.
+ */
+class FeatureSnapshot {
+
+    static class ScenarioInfo {
+        final String key;
+        final int line;
+        final List<String> steps;
+        final String signature;
+
+        ScenarioInfo(String key, int line, List<String> steps, String signature) {
+            this.key = key;
+            this.line = line;
+            this.steps = steps;
+            this.signature = signature;
+        }
+    }
+
+    private static final GherkinParser PARSER = GherkinParser.builder()
+            .includeSource(false)
+            .includeGherkinDocument(true)
+            .includePickles(true)
+            .build();
+
+    final Path file;
+    final Map<String, ScenarioInfo> scenarios = new LinkedHashMap<>();
+
+    private FeatureSnapshot(Path file) {
+        this.file = file;
+    }
+
+    static FeatureSnapshot parse(Path file) throws IOException {
+        FeatureSnapshot snapshot = new FeatureSnapshot(file);
+        Map<String, Integer> lines = new HashMap<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+
+        for (Envelope envelope : PARSER.parse(file).collect(Collectors.toList())) {
+            envelope.getGherkinDocument()
+                    .flatMap(document -> document.getFeature())
+                    .ifPresent(feature -> collectLines(feature.getChildren(), lines));
+
+            if (envelope.getPickle().isEmpty()) continue;
+            Pickle pickle = envelope.getPickle().get();
+
+            // Пример из "Структуры сценария" адресуется строкой своей строки таблицы
+            List<String> astNodeIds = pickle.getAstNodeIds();
+            int line = lines.getOrDefault(astNodeIds.get(astNodeIds.size() - 1), 0);
+
+            List<String> steps = pickle.getSteps().stream().map(PickleStep::getText).collect(Collectors.toList());
+            String key = pickle.getName() + "#" + occurrences.merge(pickle.getName(), 1, Integer::sum);
+            snapshot.scenarios.put(key, new ScenarioInfo(key, line, steps, String.join("\n", steps)));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Строки сценариев, которые появились или изменились относительно предыдущей версии файла.
+     */
+    List<Integer> changedSince(FeatureSnapshot previous) {
+        List<Integer> changed = new ArrayList<>();
+        for (ScenarioInfo scenario : scenarios.values()) {
+            ScenarioInfo before = previous == null ? null : previous.scenarios.get(scenario.key);
+            if (before == null || !before.signature.equals(scenario.signature)) {
+                changed.add(scenario.line);
+            }
+        }
+        return changed;
+    }
+
+    private static void collectLines(List<FeatureChild> children, Map<String, Integer> lines) {
+        for (FeatureChild child : children) {
+            child.getScenario().ifPresent(scenario -> collectLines(scenario, lines));
+            child.getRule().ifPresent(rule -> {
+                for (RuleChild ruleChild : rule.getChildren()) {
+                    ruleChild.getScenario().ifPresent(scenario -> collectLines(scenario, lines));
+                }
+            });
+        }
+    }
+
+    private static void collectLines(Scenario scenario, Map<String, Integer> lines) {
+        lines.put(scenario.getId(), scenario.getLocation().getLine().intValue());
+        for (Examples examples : scenario.getExamples()) {
+            for (TableRow row : examples.getTableBody()) {
+                lines.put(row.getId(), row.getLocation().getLine().intValue());
+            }
+        }
+    }
+}
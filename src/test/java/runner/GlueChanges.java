@@ -0,0 +1,147 @@
+package runner;
+
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнение двух версий исходника с шагами: какие выражения шагов затронуты правкой.
+ */
+class GlueChanges {
+    private static final Pattern STEP_ANNOTATION = Pattern.compile(
+            "@(?:Дано|Когда|Тогда|И|Но|Допустим|Если|Затем|Иначе|К тому же|Given|When|Then|And|But)\\(\\s*\"((?:[^\"\\\\]|\\\\.)*)\"\\s*\\)");
+
+    private static final Pattern METHOD_NAME = Pattern.compile("\\s([\\p{L}_$][\\p{L}\\p{N}_$]*)\\s*\\(");
+
+    private static final ExpressionFactory EXPRESSIONS = new ExpressionFactory(new ParameterTypeRegistry(new Locale("ru")));
+
+    /**
+     * @return выражения измененных/новых шагов и шагов, которые вызывают их (напрямую или через другие шаги),
+     * или null, если правка затронула код вне методов шагов (поля, хелперы, импорты) и влияние нельзя
+     * ограничить отдельными шагами
+     */
+    static Set<String> changedStepExpressions(String before, String after) {
+        Map<String, String> oldSteps = new LinkedHashMap<>();
+        Map<String, String> newSteps = new LinkedHashMap<>();
+        String oldSkeleton = extractSteps(before == null ? "" : before, oldSteps);
+        String newSkeleton = extractSteps(after == null ? "" : after, newSteps);
+
+        if (!oldSkeleton.equals(newSkeleton)) return null;
+
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> step : newSteps.entrySet()) {
+            if (!Objects.equals(oldSteps.get(step.getKey()), step.getValue())) changed.add(step.getKey());
+        }
+        addCallers(newSteps, changed);
+        return changed;
+    }
+
+    /**
+     * Дополняет changed шагами, тело которых вызывает метод измененного шага, до неподвижной точки
+     */
+    private static void addCallers(Map<String, String> steps, Set<String> changed) {
+        boolean added = true;
+        while (added) {
+            added = false;
+            for (String expression : List.copyOf(changed)) {
+                String method = methodName(steps.get(expression));
+                if (method == null) continue;
+                Pattern call = Pattern.compile("(?<![\\p{L}\\p{N}_$])" + Pattern.quote(method) + "\\s*\\(");
+
+                for (Map.Entry<String, String> step : steps.entrySet()) {
+                    if (changed.contains(step.getKey())) continue;
+                    String text = step.getValue();
+                    String body = text.substring(text.indexOf('{') + 1);
+                    if (call.matcher(body).find()) {
+                        changed.add(step.getKey());
+                        added = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Имя метода шага: первый идентификатор перед "(" после аннотации
+     */
+    private static String methodName(String stepText) {
+        if (stepText == null) return null;
+        Matcher annotation = STEP_ANNOTATION.matcher(stepText);
+        int bodyStart = stepText.indexOf('{');
+        if (!annotation.lookingAt() || bodyStart < annotation.end()) return null;
+        Matcher matcher = METHOD_NAME.matcher(stepText.substring(annotation.end(), bodyStart));
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    static boolean matchesAny(Set<String> expressions, List<String> stepTexts) {
+        List<Expression> compiled = expressions.stream()
+                .map(EXPRESSIONS::createExpression)
+                .collect(Collectors.toList());
+
+        for (String text : stepTexts) {
+            for (Expression expression : compiled) {
+                if (expression.match(text) != null) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Вырезает методы шагов (аннотация + тело) из исходника.
+     *
+     * @return исходник без методов шагов
+     */
+    private static String extractSteps(String source, Map<String, String> steps) {
+        StringBuilder skeleton = new StringBuilder();
+        Matcher matcher = STEP_ANNOTATION.matcher(source);
+        int position = 0;
+
+        while (matcher.find(position)) {
+            int bodyStart = source.indexOf('{', matcher.end());
+            if (bodyStart < 0) break;
+            int bodyEnd = matchingBrace(source, bodyStart);
+
+            String expression = matcher.group(1).replace("\\\"", "\"").replace("\\\\", "\\");
+            steps.put(expression, source.substring(matcher.start(), bodyEnd + 1));
+            skeleton.append(source, position, matcher.start());
+            position = bodyEnd + 1;
+        }
+        skeleton.append(source.substring(Math.min(position, source.length())));
+        return skeleton.toString().replaceAll("\\s+", " ");
+    }
+
+    private static int matchingBrace(String source, int open) {
+        int depth = 0;
+        for (int i = open; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (source.startsWith("//", i)) {
+                int end = source.indexOf('\n', i);
+                i = end < 0 ? source.length() : end;
+            } else if (source.startsWith("/*", i)) {
+                int end = source.indexOf("*/", i + 2);
+                i = end < 0 ? source.length() : end + 1;
+            } else if (c == '"' || c == '\'') {
+                // пропуск строкового/символьного литерала
+                for (i++; i < source.length() && source.charAt(i) != c; i++) {
+                    if (source.charAt(i) == '\\') i++;
+                }
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return source.length() - 1;
+    }
+}
@@ -0,0 +1,42 @@
+package runner;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import utils.AllureReports;
+import utils.ConfigReader;
+import utils.ScenarioCache;
+import utils.ScenarioIds;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Инкрементальный режим (-Dincremental.enabled=true): исключает сценарии,
+ * входные данные которых не менялись с последнего успешного прогона, и переносит
+ * их результат из кэша в Allure. Регистрируется через ServiceLoader.
+ */
+public class IncrementalFilter implements PostDiscoveryFilter {
+    private final Set<String> replayed = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        if (!ConfigReader.isIncrementalEnabled() || !descriptor.isTest()) {
+            return FilterResult.included("инкрементальный режим выключен");
+        }
+        // Ошибка конфигурации — до запуска сценариев, а не в @After каждого из них
+        ScenarioCache.requireAppIdentity();
+
+        String id = ScenarioIds.of(descriptor);
+        if (id == null || !ScenarioCache.isUpToDate(id)) {
+            return FilterResult.included("сценарий изменился или не проходил");
+        }
+
+        if (replayed.add(id)) {
+            AllureReports.addCachedScenarioResult(id, descriptor.getDisplayName(),
+                    "Сценарий " + id + " не менялся с последнего успешного прогона и не запускался");
+            System.out.println("Из кэша: " + id + " (" + descriptor.getDisplayName() + ")");
+        }
+        return FilterResult.excluded("результат из кэша: " + id);
+    }
+}
@@ -0,0 +1,251 @@
+package runner;
+
+import utils.AppManager;
+import utils.ConfigReader;
+import utils.EndpointClient;
+import utils.JfrRecorder;
+import utils.LargeFormBody;
+import utils.LatencyHistogram;
+import utils.WireMockManager;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузка большими телами application/x-www-form-urlencoded: длинный токен, длинное действие
+ * (оба должны отклоняться 4xx или закрытием соединения) и тысячи повторов параметра token
+ * (без 5xx). Тела генерируются потоком (LargeFormBody) и в памяти теста не держатся.
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-Dlarge.requests=300 -Dapp.pid=12345 -cp %classpath runner.LargePayloadRunner"
+ *
+ * Измеряется задержка и исход по каждому виду тела, задержка обычных LOGIN до и во время нагрузки,
+ * RSS приложения (если известен pid: app.jar или app.pid) до, в пике и после. Отчет — target/large/large-report.txt.
+ */
+public class LargePayloadRunner {
+    private static final int CONTROL_SAMPLES = 50;
+    private static final int SAMPLES_PER_KIND = 5;
+    private static final long MEMORY_SAMPLE_MS = 100;
+    private static final long SETTLE_MS = 1000;
+
+    enum Kind {
+        LONG_TOKEN(true), LONG_ACTION(true), REPEATED_TOKEN(false);
+
+        final boolean mustReject;
+
+        Kind(boolean mustReject) {
+            this.mustReject = mustReject;
+        }
+    }
+
+    private static final class KindStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final Map<String, AtomicLong> outcomes = new ConcurrentSkipListMap<>();
+        final AtomicLong unexpected = new AtomicLong();
+        final List<String> samples = new ArrayList<>();
+    }
+
+    private final EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+    private final Map<String, String> headers = Map.of(
+            "X-Api-Key", ConfigReader.getApiKey(),
+            "Accept", "application/json");
+    private final Map<Kind, KindStats> stats = new EnumMap<>(Kind.class);
+    private final LatencyHistogram controlIdle = new LatencyHistogram();
+    private final LatencyHistogram controlLoaded = new LatencyHistogram();
+    private final AtomicLong controlErrors = new AtomicLong();
+    private final AtomicLong peakRssKb = new AtomicLong(-1);
+
+    public static void main(String[] args) throws Exception {
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.startServer();
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+
+        boolean clean;
+        JfrRecorder.Window jfr = JfrRecorder.begin("large-payload");
+        try {
+            clean = new LargePayloadRunner().run();
+        } finally {
+            JfrRecorder.end(jfr);
+            WireMockManager.stopServer();
+        }
+        System.exit(clean ? 0 : 1);
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        for (Kind kind : Kind.values()) {
+            stats.put(kind, new KindStats());
+        }
+
+        long pid = AppManager.targetPid();
+        long rssBefore = AppManager.residentMemoryKb(pid);
+        ScheduledExecutorService memory = Executors.newSingleThreadScheduledExecutor();
+        memory.scheduleAtFixedRate(() -> peakRssKb.accumulateAndGet(AppManager.residentMemoryKb(pid), Math::max),
+                0, MEMORY_SAMPLE_MS, TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < CONTROL_SAMPLES; i++) {
+            control(controlIdle);
+        }
+
+        AtomicBoolean loading = new AtomicBoolean(true);
+        Thread controlThread = new Thread(() -> {
+            while (loading.get()) control(controlLoaded);
+        }, "large-payload-control");
+        controlThread.start();
+
+        int requests = ConfigReader.getLargeRequests();
+        int concurrency = ConfigReader.getLargeConcurrency();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long startedAt = System.nanoTime();
+        long bytes = 0;
+
+        for (int i = 0; i < requests; i++) {
+            Kind kind = Kind.values()[i % Kind.values().length];
+            LargeFormBody body = body(kind);
+            bytes += body.length();
+
+            inFlight.acquire();
+            long sentAt = System.nanoTime();
+            client.postStreamAsync(headers, body).whenComplete((response, error) -> {
+                try {
+                    record(kind, body, System.nanoTime() - sentAt, response, error);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(concurrency);
+        double elapsedSec = (System.nanoTime() - startedAt) / 1e9;
+
+        loading.set(false);
+        controlThread.join();
+        Thread.sleep(SETTLE_MS);
+        long rssAfter = AppManager.residentMemoryKb(pid);
+        memory.shutdownNow();
+
+        String report = formatReport(requests, bytes, elapsedSec, rssBefore, rssAfter);
+        System.out.println(report);
+
+        Path file = Paths.get("target/large/large-report.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        System.out.println("Отчет: " + file.toAbsolutePath());
+
+        return stats.values().stream().allMatch(s -> s.unexpected.get() == 0);
+    }
+
+    private static LargeFormBody body(Kind kind) {
+        long size = ConfigReader.getLargeSizeMb() * 1024L * 1024L;
+        String token = UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+        switch (kind) {
+            case LONG_TOKEN:
+                return LargeFormBody.longToken(size);
+            case LONG_ACTION:
+                return LargeFormBody.longAction(token, size);
+            default:
+                return LargeFormBody.repeatedToken(token, ConfigReader.getLargeRepeats());
+        }
+    }
+
+    private void record(Kind kind, LargeFormBody body, long nanos, HttpResponse<String> response, Throwable error) {
+        KindStats kindStats = stats.get(kind);
+        kindStats.latency.recordNanos(nanos);
+
+        Throwable cause = error != null && error.getCause() != null ? error.getCause() : error;
+        String outcome;
+        boolean expected;
+        if (response != null) {
+            int status = response.statusCode();
+            outcome = "HTTP " + status;
+            expected = status != 401 && (kind.mustReject ? status >= 400 && status < 500 : status < 500);
+        } else if (cause instanceof HttpTimeoutException) {
+            outcome = "таймаут";
+            expected = false;
+        } else {
+            outcome = "соединение закрыто сервером";
+            expected = true;
+        }
+
+        kindStats.outcomes.computeIfAbsent(outcome, k -> new AtomicLong()).incrementAndGet();
+        if (!expected) {
+            kindStats.unexpected.incrementAndGet();
+            synchronized (kindStats.samples) {
+                if (kindStats.samples.size() < SAMPLES_PER_KIND) {
+                    kindStats.samples.add(body.description() + " -> " + outcome
+                            + (response != null ? " " + abbreviate(response.body()) : " " + cause));
+                }
+            }
+        }
+    }
+
+    /**
+     * Обычный LOGIN с корректным токеном: задержка показывает влияние больших запросов на остальной трафик
+     */
+    private void control(LatencyHistogram histogram) {
+        String token = UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.post(headers, Map.of("action", "LOGIN", "token", token));
+            histogram.recordNanos(System.nanoTime() - startedAt);
+            if (!"OK".equals(EndpointClient.result(response.body()))) controlErrors.incrementAndGet();
+        } catch (IOException e) {
+            controlErrors.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String formatReport(int requests, long bytes, double elapsedSec, long rssBefore, long rssAfter) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== LARGE PAYLOAD ===\n");
+        sb.append(String.format(Locale.ROOT, "Запросов: %d, %.1f МБ за %.1f с (%.1f МБ/с), параллельно %d%n",
+                requests, bytes / 1048576.0, elapsedSec, bytes / 1048576.0 / Math.max(1e-3, elapsedSec),
+                ConfigReader.getLargeConcurrency()));
+
+        stats.forEach((kind, s) -> {
+            sb.append(String.format(Locale.ROOT, "%s (%s): p50 %.1f мс, p99 %.1f мс, max %.1f мс%n",
+                    kind, kind.mustReject ? "ожидается отказ" : "ожидается без 5xx",
+                    s.latency.getPercentileMs(50), s.latency.getPercentileMs(99), s.latency.getMaxMs()));
+            s.outcomes.forEach((outcome, count) -> sb.append("  ").append(outcome).append(": ").append(count.get()).append("\n"));
+            if (s.unexpected.get() > 0) {
+                sb.append("  Неожиданных исходов: ").append(s.unexpected.get()).append("\n");
+                s.samples.forEach(sample -> sb.append("    ").append(sample).append("\n"));
+            }
+        });
+
+        sb.append(String.format(Locale.ROOT, "Обычный LOGIN: без нагрузки p50 %.1f / p99 %.1f мс, под нагрузкой p50 %.1f / p99 %.1f мс (%d запросов), ошибок %d%n",
+                controlIdle.getPercentileMs(50), controlIdle.getPercentileMs(99),
+                controlLoaded.getPercentileMs(50), controlLoaded.getPercentileMs(99),
+                controlLoaded.getCount(), controlErrors.get()));
+
+        if (rssBefore < 0) {
+            sb.append("RSS приложения: недоступен (нужен app.jar или app.pid)\n");
+        } else {
+            sb.append(String.format(Locale.ROOT, "RSS приложения: до %.1f МБ, пик %.1f МБ, после %.1f МБ%n",
+                    rssBefore / 1024.0, peakRssKb.get() / 1024.0, rssAfter / 1024.0));
+        }
+        return sb.toString();
+    }
+
+    private static String abbreviate(String text) {
+        if (text == null) return "null";
+        return text.length() > 200 ? text.substring(0, 200) + "…" : text;
+    }
+}
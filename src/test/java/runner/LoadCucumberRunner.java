@@ -0,0 +1,32 @@
+package runner;
+
+import org.junit.platform.suite.api.ConfigurationParameter;
+import org.junit.platform.suite.api.IncludeEngines;
+import org.junit.platform.suite.api.SelectClasspathResource;
+import org.junit.platform.suite.api.Suite;
+
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.FILTER_TAGS_PROPERTY_NAME;
+
+/**
+ * Прогон с большим числом сценариев: вместо pretty, html, json и junit — только события в NDJSON
+ * через очередь и поток-писатель (NdjsonEventsPlugin); отчеты строятся после прогона NdjsonReportConverter.
+ *
+ * Запуск: mvn test -Dtest=LoadCucumberRunner
+ */
+@Suite(failIfNoTests = false)
+@IncludeEngines("cucumber")
+@SelectClasspathResource("features")
+@ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "stepdefinitions,hooks")
+@ConfigurationParameter(
+        key = PLUGIN_PROPERTY_NAME,
+        value =
+                "plugins.NdjsonEventsPlugin:target/cucumber-reports/events.ndjson," +
+                        "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm," +
+                        "plugins.PerfStatsPlugin," +
+                        "plugins.HarnessProfilePlugin"
+)
+@ConfigurationParameter(key = FILTER_TAGS_PROPERTY_NAME, value = "@regression")
+public class LoadCucumberRunner {
+}
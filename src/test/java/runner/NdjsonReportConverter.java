@@ -0,0 +1,478 @@
+package runner;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Отчеты Cucumber html, json и junit из файла событий plugins.NdjsonEventsPlugin после прогона.
+ * Файл читается потоково в два прохода (итоги, затем сценарии); в памяти только заголовки фич
+ * и шаги сценариев, которые еще выполнялись, поэтому память не зависит от размера прогона.
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-cp %classpath runner.NdjsonReportConverter [events.ndjson] [каталог]"
+ *
+ * events.ndjson -> cucumber.json/.xml/.html, events-shard-1.ndjson -> cucumber-shard-1.* (дальше — ReportMerger).
+ * json совместим со стандартным форматтером по полям, которые читают ScenarioDurations и внешние отчеты:
+ * сценарии одной фичи, выполнявшиеся вперемешку с другими, попадают в несколько записей этой фичи.
+ * html — статическая страница со сводкой и таблицей сценариев (стандартная html-страница Cucumber
+ * строится из полного потока сообщений в памяти и для больших прогонов не подходит).
+ */
+public class NdjsonReportConverter {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Итоги прогона для заголовков junit и html: считаются первым проходом
+     */
+    static final class Totals {
+        final Map<String, Long> statuses = new TreeMap<>();
+        long scenarios;
+        long durationNanos;
+        long startedAt = -1;
+
+        long count(String... statuses) {
+            long count = 0;
+            for (String status : statuses) count += this.statuses.getOrDefault(status, 0L);
+            return count;
+        }
+    }
+
+    /**
+     * Сценарий, собранный из событий case-start, step, hook и case-end
+     */
+    static final class Scenario {
+        final JsonNode start;
+        final List<JsonNode> before = new ArrayList<>();
+        final List<Step> steps = new ArrayList<>();
+        final List<JsonNode> after = new ArrayList<>();
+        private final List<JsonNode> beforeNextStep = new ArrayList<>();
+        JsonNode feature;
+        JsonNode end;
+
+        Scenario(JsonNode start) {
+            this.start = start;
+        }
+
+        void add(JsonNode event) {
+            if ("step".equals(event.path("e").asText())) {
+                Step step = new Step(event);
+                step.before.addAll(beforeNextStep);
+                beforeNextStep.clear();
+                steps.add(step);
+                return;
+            }
+            switch (event.path("hook").asText()) {
+                case "BEFORE" -> before.add(event);
+                case "AFTER" -> after.add(event);
+                case "BEFORE_STEP" -> beforeNextStep.add(event);
+                case "AFTER_STEP" -> {
+                    if (!steps.isEmpty()) steps.get(steps.size() - 1).after.add(event);
+                }
+                default -> {
+                }
+            }
+        }
+
+        String status() {
+            return end.path("status").asText();
+        }
+    }
+
+    static final class Step {
+        final JsonNode event;
+        final List<JsonNode> before = new ArrayList<>();
+        final List<JsonNode> after = new ArrayList<>();
+
+        Step(JsonNode event) {
+            this.event = event;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path events = Paths.get(args.length > 0 ? args[0] : "target/cucumber-reports/events.ndjson");
+        Path dir = args.length > 1 ? Paths.get(args[1]) : events.toAbsolutePath().getParent();
+        if (!Files.isRegularFile(events)) {
+            System.err.println("Нет файла событий: " + events.toAbsolutePath());
+            System.exit(2);
+        }
+
+        String base = reportBase(events);
+        Files.createDirectories(dir);
+        Totals totals = totals(events);
+        int incomplete = convert(events, totals, dir.resolve(base + ".json"), dir.resolve(base + ".xml"), dir.resolve(base + ".html"));
+
+        System.out.println("Сценариев: " + totals.scenarios + " " + totals.statuses + " -> " + dir.toAbsolutePath().resolve(base + ".{json,xml,html}"));
+        if (incomplete > 0) {
+            System.err.println("Сценариев без завершения (прогон прерван): " + incomplete);
+        }
+    }
+
+    /**
+     * events.ndjson -> cucumber, events-shard-1.ndjson -> cucumber-shard-1
+     */
+    static String reportBase(Path events) {
+        String name = events.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String stem = dot < 0 ? name : name.substring(0, dot);
+        int dash = stem.indexOf('-');
+        return dash < 0 ? "cucumber" : "cucumber" + stem.substring(dash);
+    }
+
+    static Totals totals(Path events) throws IOException {
+        Totals totals = new Totals();
+        try (MappingIterator<JsonNode> iterator = MAPPER.readerFor(JsonNode.class).readValues(events.toFile())) {
+            while (iterator.hasNext()) {
+                JsonNode event = iterator.next();
+                switch (event.path("e").asText()) {
+                    case "run-start" -> totals.startedAt = event.path("ts").asLong(-1);
+                    case "case-end" -> {
+                        totals.scenarios++;
+                        totals.durationNanos += event.path("duration").asLong(0);
+                        totals.statuses.merge(event.path("status").asText(), 1L, Long::sum);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * @return число начатых, но не завершенных сценариев
+     */
+    static int convert(Path events, Totals totals, Path json, Path xml, Path html) throws IOException, XMLStreamException {
+        Map<String, JsonNode> features = new HashMap<>();
+        Map<String, Scenario> running = new HashMap<>();
+
+        try (MappingIterator<JsonNode> iterator = MAPPER.readerFor(JsonNode.class).readValues(events.toFile());
+             JsonReport jsonReport = new JsonReport(json);
+             JUnitReport junitReport = new JUnitReport(xml, totals);
+             HtmlReport htmlReport = new HtmlReport(html, totals)) {
+            while (iterator.hasNext()) {
+                JsonNode event = iterator.next();
+                switch (event.path("e").asText()) {
+                    case "feature" -> features.put(event.path("uri").asText(), event);
+                    case "case-start" -> running.put(event.path("case").asText(), new Scenario(event));
+                    case "step", "hook" -> {
+                        Scenario scenario = running.get(event.path("case").asText());
+                        if (scenario != null) scenario.add(event);
+                    }
+                    case "case-end" -> {
+                        Scenario scenario = running.remove(event.path("case").asText());
+                        if (scenario == null) continue;
+                        scenario.end = event;
+                        scenario.feature = features.get(scenario.start.path("uri").asText());
+
+                        jsonReport.scenario(scenario);
+                        junitReport.scenario(scenario);
+                        htmlReport.scenario(scenario);
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        return running.size();
+    }
+
+    private static String featureName(Scenario scenario) {
+        return scenario.feature != null ? scenario.feature.path("name").asText() : scenario.start.path("uri").asText();
+    }
+
+    private static String id(String name) {
+        return name.toLowerCase(Locale.ROOT).replaceAll("\\s+", "-");
+    }
+
+    private static String firstLine(String text) {
+        int newline = text.indexOf('\n');
+        return (newline < 0 ? text : text.substring(0, newline)).trim();
+    }
+
+    /**
+     * Массив фич в формате стандартного json-форматтера: новая запись фичи на каждую смену файла фичи
+     */
+    static final class JsonReport implements Closeable {
+        private final JsonGenerator generator;
+        private String currentUri;
+
+        JsonReport(Path file) throws IOException {
+            generator = new JsonFactory().createGenerator(Files.newOutputStream(file));
+            generator.writeStartArray();
+        }
+
+        void scenario(Scenario scenario) throws IOException {
+            String uri = scenario.start.path("uri").asText();
+            if (!uri.equals(currentUri)) {
+                if (currentUri != null) endFeature();
+                startFeature(uri, scenario.feature);
+                currentUri = uri;
+            }
+
+            JsonNode start = scenario.start;
+            generator.writeStartObject();
+            generator.writeNumberField("line", start.path("line").asInt());
+            generator.writeStringField("name", start.path("name").asText());
+            generator.writeStringField("description", "");
+            generator.writeStringField("id", id(featureName(scenario)) + ";" + id(start.path("name").asText()));
+            generator.writeStringField("type", "scenario");
+            generator.writeStringField("keyword", start.path("keyword").asText());
+            if (start.has("ts")) {
+                generator.writeStringField("start_timestamp", Instant.ofEpochMilli(start.path("ts").asLong()).toString());
+            }
+            hooks("before", scenario.before);
+            generator.writeArrayFieldStart("steps");
+            for (Step step : scenario.steps) {
+                generator.writeStartObject();
+                generator.writeNumberField("line", step.event.path("line").asInt());
+                generator.writeStringField("name", step.event.path("text").asText());
+                generator.writeStringField("keyword", step.event.path("keyword").asText());
+                match(step.event);
+                result(step.event);
+                hooks("before", step.before);
+                hooks("after", step.after);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            hooks("after", scenario.after);
+            tags(start.path("tags"));
+            generator.writeEndObject();
+        }
+
+        private void startFeature(String uri, JsonNode feature) throws IOException {
+            String name = feature != null ? feature.path("name").asText() : uri;
+            generator.writeStartObject();
+            generator.writeStringField("uri", uri);
+            generator.writeStringField("id", id(name));
+            generator.writeStringField("keyword", feature != null ? feature.path("keyword").asText() : "");
+            generator.writeStringField("name", name);
+            generator.writeStringField("description", feature != null ? feature.path("description").asText() : "");
+            generator.writeNumberField("line", feature != null ? feature.path("line").asInt(1) : 1);
+            tags(feature != null ? feature.path("tags") : MAPPER.createArrayNode());
+            generator.writeArrayFieldStart("elements");
+        }
+
+        private void endFeature() throws IOException {
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private void hooks(String field, List<JsonNode> hooks) throws IOException {
+            if (hooks.isEmpty()) return;
+            generator.writeArrayFieldStart(field);
+            for (JsonNode hook : hooks) {
+                generator.writeStartObject();
+                match(hook);
+                result(hook);
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        private void match(JsonNode event) throws IOException {
+            generator.writeObjectFieldStart("match");
+            if (event.hasNonNull("location")) generator.writeStringField("location", event.path("location").asText());
+            generator.writeEndObject();
+        }
+
+        private void result(JsonNode event) throws IOException {
+            generator.writeObjectFieldStart("result");
+            generator.writeStringField("status", event.path("status").asText().toLowerCase(Locale.ROOT));
+            generator.writeNumberField("duration", event.path("duration").asLong(0));
+            if (event.has("error")) generator.writeStringField("error_message", event.path("error").asText());
+            generator.writeEndObject();
+        }
+
+        private void tags(JsonNode tags) throws IOException {
+            generator.writeArrayFieldStart("tags");
+            for (JsonNode tag : tags) {
+                generator.writeStartObject();
+                generator.writeStringField("name", tag.asText());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (currentUri != null) endFeature();
+            generator.writeEndArray();
+            generator.close();
+        }
+    }
+
+    /**
+     * Один testsuite, testcase на сценарий; итоги в атрибутах — из первого прохода
+     */
+    static final class JUnitReport implements Closeable {
+        private final OutputStream out;
+        private final XMLStreamWriter writer;
+
+        JUnitReport(Path file, Totals totals) throws IOException, XMLStreamException {
+            out = Files.newOutputStream(file);
+            writer = XMLOutputFactory.newFactory().createXMLStreamWriter(out, StandardCharsets.UTF_8.name());
+            writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+            writer.writeCharacters("\n");
+            writer.writeStartElement("testsuite");
+            writer.writeAttribute("name", "Cucumber");
+            writer.writeAttribute("time", seconds(totals.durationNanos));
+            writer.writeAttribute("tests", String.valueOf(totals.scenarios));
+            writer.writeAttribute("skipped", String.valueOf(totals.count("SKIPPED", "UNUSED")));
+            writer.writeAttribute("failures", String.valueOf(totals.count("FAILED", "AMBIGUOUS", "PENDING", "UNDEFINED")));
+            writer.writeAttribute("errors", "0");
+            if (totals.startedAt >= 0) writer.writeAttribute("timestamp", Instant.ofEpochMilli(totals.startedAt).toString());
+        }
+
+        void scenario(Scenario scenario) throws IOException {
+            try {
+                writer.writeCharacters("\n");
+                writer.writeStartElement("testcase");
+                writer.writeAttribute("classname", featureName(scenario));
+                writer.writeAttribute("name", scenario.start.path("name").asText());
+                writer.writeAttribute("time", seconds(scenario.end.path("duration").asLong(0)));
+
+                switch (scenario.status()) {
+                    case "PASSED" -> {
+                    }
+                    case "SKIPPED", "UNUSED" -> {
+                        writer.writeEmptyElement("skipped");
+                        if (scenario.end.has("error")) writer.writeAttribute("message", firstLine(scenario.end.path("error").asText()));
+                    }
+                    default -> {
+                        String error = scenario.end.path("error").asText("Сценарий " + scenario.status());
+                        String message = firstLine(error);
+                        int colon = message.indexOf(':');
+                        writer.writeStartElement("failure");
+                        writer.writeAttribute("type", colon < 0 ? scenario.status() : message.substring(0, colon));
+                        writer.writeAttribute("message", colon < 0 ? message : message.substring(colon + 1).trim());
+                        cdata(error);
+                        writer.writeEndElement();
+                    }
+                }
+
+                StringBuilder steps = new StringBuilder();
+                for (Step step : scenario.steps) {
+                    String text = step.event.path("keyword").asText() + step.event.path("text").asText();
+                    steps.append(text).append(".".repeat(Math.max(3, 80 - text.length())))
+                            .append(step.event.path("status").asText().toLowerCase(Locale.ROOT)).append('\n');
+                }
+                writer.writeStartElement("system-out");
+                cdata(steps.toString());
+                writer.writeEndElement();
+                writer.writeEndElement();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (out) {
+                writer.writeCharacters("\n");
+                writer.writeEndElement();
+                writer.writeEndDocument();
+                writer.close();
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        /**
+         * CDATA-секция не может содержать "]]>": такие места (например, в трассе исключения) делят текст на соседние секции
+         */
+        private void cdata(String text) throws XMLStreamException {
+            int from = 0;
+            for (int end = text.indexOf("]]>"); end >= 0; end = text.indexOf("]]>", from)) {
+                writer.writeCData(text.substring(from, end + 2));
+                from = end + 2;
+            }
+            writer.writeCData(text.substring(from));
+        }
+
+        private static String seconds(long nanos) {
+            return String.format(Locale.ROOT, "%.3f", nanos / 1e9);
+        }
+    }
+
+    /**
+     * Статическая страница: сводка и строка на сценарий; у непрошедших — шаги и стек ошибки
+     */
+    static final class HtmlReport implements Closeable {
+        private final Writer writer;
+
+        HtmlReport(Path file, Totals totals) throws IOException {
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writer.write("<!DOCTYPE html>\n<html><head><meta charset=\"UTF-8\"><title>Cucumber</title><style>\n"
+                    + "body{font-family:sans-serif;font-size:14px}table{border-collapse:collapse;width:100%}"
+                    + "td,th{border:1px solid #ddd;padding:4px 8px;text-align:left;vertical-align:top}"
+                    + ".PASSED{background:#e6f4ea}.FAILED,.AMBIGUOUS,.UNDEFINED,.PENDING{background:#fce8e6}"
+                    + ".SKIPPED,.UNUSED{background:#fef7e0}pre{margin:0;white-space:pre-wrap}\n"
+                    + "</style></head><body>\n");
+            writer.write("<h1>Cucumber</h1>\n<p>");
+            if (totals.startedAt >= 0) writer.write("Начало: " + Instant.ofEpochMilli(totals.startedAt) + ". ");
+            writer.write(String.format(Locale.ROOT, "Сценариев: %d, суммарно %.1f с", totals.scenarios, totals.durationNanos / 1e9));
+            for (Map.Entry<String, Long> status : totals.statuses.entrySet()) {
+                writer.write(", " + escape(status.getKey()) + ": " + status.getValue());
+            }
+            writer.write("</p>\n<table>\n<tr><th>Фича</th><th>Сценарий</th><th>Статус</th><th>Длительность, мс</th></tr>\n");
+        }
+
+        void scenario(Scenario scenario) throws IOException {
+            String status = scenario.status();
+            writer.write("<tr class=\"" + escape(status) + "\"><td>" + escape(featureName(scenario)) + "</td><td>"
+                    + escape(scenario.start.path("name").asText()) + " <small>" + escape(scenario.start.path("uri").asText())
+                    + ":" + scenario.start.path("line").asInt() + "</small></td><td>" + escape(status) + "</td><td>"
+                    + String.format(Locale.ROOT, "%.1f", scenario.end.path("duration").asLong(0) / 1e6) + "</td></tr>\n");
+            if ("PASSED".equals(status)) return;
+
+            writer.write("<tr class=\"" + escape(status) + "\"><td></td><td colspan=\"3\"><pre>");
+            for (Step step : scenario.steps) {
+                writer.write(escape(step.event.path("keyword").asText() + step.event.path("text").asText()
+                        + " — " + step.event.path("status").asText().toLowerCase(Locale.ROOT)) + "\n");
+            }
+            if (scenario.end.has("error")) writer.write("\n" + escape(scenario.end.path("error").asText()));
+            writer.write("</pre></td></tr>\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.write("</table>\n</body></html>\n");
+            writer.close();
+        }
+
+        private static String escape(String text) {
+            StringBuilder sb = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '<' -> sb.append("&lt;");
+                    case '>' -> sb.append("&gt;");
+                    case '&' -> sb.append("&amp;");
+                    case '"' -> sb.append("&quot;");
+                    default -> sb.append(c);
+                }
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package runner;
+
+import utils.AppManager;
+import utils.ConfigReader;
+import utils.EndpointClient;
+import utils.LatencyHistogram;
+import utils.RecoveryProbe;
+import utils.WireMockManager;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Перезапуск приложения из app.jar посреди нагрузки LOGIN -> ACTION: время до первого успешного
+ * ответа и до установившейся задержки (RecoveryProbe), окно ошибок нагрузки, задержки до и после,
+ * а также судьба recovery.tokens сессий, открытых до перезапуска (ACTION с ними после восстановления).
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-Dapp.jar=app.jar -Dapp.restart.graceful=false -cp %classpath runner.RecoveryRunner"
+ *
+ * Отчет — target/recovery/recovery-report.txt.
+ */
+public class RecoveryRunner {
+    private final EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+    private final Map<String, String> headers = Map.of(
+            "X-Api-Key", ConfigReader.getApiKey(),
+            "Accept", "application/json");
+
+    private final AtomicBoolean restarting = new AtomicBoolean();
+    private final AtomicBoolean recovered = new AtomicBoolean();
+    private final LatencyHistogram before = new LatencyHistogram();
+    private final LatencyHistogram after = new LatencyHistogram();
+    private final AtomicLong loadOk = new AtomicLong();
+    private final AtomicLong loadErrors = new AtomicLong();
+    private final AtomicLong firstErrorAt = new AtomicLong(-1);
+    private final AtomicLong lastErrorAt = new AtomicLong(-1);
+
+    public static void main(String[] args) throws Exception {
+        if (ConfigReader.getAppJar() == null) {
+            System.err.println("Нужен -Dapp.jar: перезапускается только приложение, запущенное тестами");
+            System.exit(2);
+        }
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.startServer();
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+        AppManager.start();
+
+        boolean recovered;
+        try {
+            recovered = new RecoveryRunner().run();
+        } finally {
+            AppManager.stop();
+            WireMockManager.stopServer();
+        }
+        System.exit(recovered ? 0 : 1);
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        List<String> sessions = openSessions(ConfigReader.getRecoveryTokens());
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        int threads = ConfigReader.getRecoveryLoadThreads();
+        ExecutorService load = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            load.submit(() -> {
+                while (running.get()) loadIteration();
+            });
+        }
+
+        Thread.sleep(ConfigReader.getRecoveryWarmupMs());
+        restarting.set(true);
+        RecoveryProbe.Result result = new RecoveryProbe().restartAndMeasure(ConfigReader.isAppRestartGraceful());
+        restarting.set(false);
+        recovered.set(true);
+
+        Thread.sleep(ConfigReader.getRecoveryAfterMs());
+        running.set(false);
+        load.shutdown();
+        load.awaitTermination(ConfigReader.getTimeout() * 2L, TimeUnit.MILLISECONDS);
+
+        Map<String, Long> sessionOutcomes = checkSessions(sessions);
+
+        String report = formatReport(result, sessions.size(), sessionOutcomes);
+        System.out.println(report);
+
+        Path file = Paths.get("target/recovery/recovery-report.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        System.out.println("Отчет: " + file.toAbsolutePath());
+
+        return result.firstSuccessMs >= 0 && result.steadyMs >= 0;
+    }
+
+    private List<String> openSessions(int count) throws IOException, InterruptedException {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String token = newToken();
+            HttpResponse<String> response = client.post(headers, Map.of("action", "LOGIN", "token", token));
+            if ("OK".equals(EndpointClient.result(response.body()))) tokens.add(token);
+        }
+        return tokens;
+    }
+
+    /**
+     * ACTION с каждой сессией, открытой до перезапуска
+     *
+     * @return исход ответа -> число сессий
+     */
+    private Map<String, Long> checkSessions(List<String> sessions) {
+        Map<String, Long> outcomes = new TreeMap<>();
+        for (String token : sessions) {
+            String outcome;
+            try {
+                HttpResponse<String> response = client.post(headers, Map.of("action", "ACTION", "token", token));
+                outcome = "HTTP " + response.statusCode() + " " + EndpointClient.result(response.body());
+            } catch (IOException e) {
+                outcome = "ошибка: " + e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            outcomes.merge(outcome, 1L, Long::sum);
+        }
+        return outcomes;
+    }
+
+    private void loadIteration() {
+        String token = newToken();
+        long iterationStart = System.nanoTime();
+        boolean ok = send("LOGIN", token) && send("ACTION", token);
+        long nanos = System.nanoTime() - iterationStart;
+
+        if (ok) {
+            loadOk.incrementAndGet();
+            if (recovered.get()) {
+                after.recordNanos(nanos);
+            } else if (!restarting.get()) {
+                before.recordNanos(nanos);
+            }
+        } else {
+            loadErrors.incrementAndGet();
+            long at = System.nanoTime();
+            firstErrorAt.compareAndSet(-1, at);
+            lastErrorAt.set(at);
+            if (restarting.get()) {
+                // приложение недоступно: не засыпать порт повторными запросами
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private boolean send(String action, String token) {
+        try {
+            HttpResponse<String> response = client.post(headers, Map.of("action", action, "token", token));
+            return "OK".equals(EndpointClient.result(response.body()));
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String formatReport(RecoveryProbe.Result result, int sessions, Map<String, Long> sessionOutcomes) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== RECOVERY ===\n");
+        sb.append(result).append("\n");
+        sb.append(String.format(Locale.ROOT, "Нагрузка: %d потоков, успешных итераций LOGIN+ACTION %d, неуспешных %d%n",
+                ConfigReader.getRecoveryLoadThreads(), loadOk.get(), loadErrors.get()));
+        if (firstErrorAt.get() >= 0) {
+            sb.append(String.format(Locale.ROOT, "Окно ошибок нагрузки: с %.0f до %.0f мс от перезапуска (%.0f мс)%n",
+                    (firstErrorAt.get() - result.stoppedAtNanos) / 1e6, (lastErrorAt.get() - result.stoppedAtNanos) / 1e6,
+                    (lastErrorAt.get() - firstErrorAt.get()) / 1e6));
+        }
+        sb.append(String.format(Locale.ROOT, "Итерация до перезапуска: p50 %.1f / p99 %.1f мс, после восстановления: p50 %.1f / p99 %.1f мс%n",
+                before.getPercentileMs(50), before.getPercentileMs(99), after.getPercentileMs(50), after.getPercentileMs(99)));
+        sb.append("Сессии, открытые до перезапуска (").append(sessions).append("), ACTION после восстановления:\n");
+        sessionOutcomes.forEach((outcome, count) -> sb.append("  ").append(outcome).append(": ").append(count).append("\n"));
+        return sb.toString();
+    }
+
+    private static String newToken() {
+        return UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,299 @@
+package runner;
+
+import utils.AppManager;
+import utils.ConfigReader;
+import utils.EndpointClient;
+import utils.JfrRecorder;
+import utils.LatencyHistogram;
+import utils.WireMockManager;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Флуд отклоняемыми запросами: неверный X-Api-Key, запрос без параметров, неизвестное действие.
+ * Каждый вид по очереди отправляется с flood.concurrency запросами в полете (flood.rate — ограничение
+ * частоты, 0 — максимум) в течение flood.duration.ms; параллельно идет поток корректных LOGIN/ACTION
+ * (flood.valid.threads), его задержка сравнивается с замером без флуда. С -Dapp.jar приложение
+ * запускается раннером.
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-Dflood.concurrency=128 -Dflood.classes=WRONG_KEY -cp %classpath runner.RejectionFloodRunner"
+ *
+ * Корректный трафик считается вытесненным, если его p50 или p99 во время флуда выросли больше чем
+ * в flood.tolerance раз или появились ошибки. Отчет — target/flood/flood-report.txt.
+ */
+public class RejectionFloodRunner {
+    // Абсолютный допуск для очень быстрых ответов, где коэффициент меньше шума
+    private static final double SLACK_MS = 2.0;
+    private static final long SETTLE_MS = 1000;
+
+    enum RejectionClass {
+        WRONG_KEY(401), MISSING_PARAMS(400), UNKNOWN_ACTION(400);
+
+        final int expectedStatus;
+
+        RejectionClass(int expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    /**
+     * Замеры одной фазы: корректный трафик и (кроме фазы без флуда) отклоняемые запросы
+     */
+    static final class Phase {
+        final RejectionClass rejection;
+        final LatencyHistogram valid = new LatencyHistogram();
+        final AtomicLong validErrors = new AtomicLong();
+        final LatencyHistogram flood = new LatencyHistogram();
+        final Map<String, AtomicLong> outcomes = new ConcurrentSkipListMap<>();
+        final AtomicLong unexpected = new AtomicLong();
+        double elapsedSec;
+
+        Phase(RejectionClass rejection) {
+            this.rejection = rejection;
+        }
+    }
+
+    private final EndpointClient validClient = new EndpointClient(ConfigReader.getBaseUrl());
+    // Отдельный пул соединений: флуд не должен вытеснять корректный трафик еще на стороне тестов
+    private final EndpointClient floodClient = new EndpointClient(ConfigReader.getBaseUrl());
+    private final Map<String, String> headers = Map.of(
+            "X-Api-Key", ConfigReader.getApiKey(),
+            "Accept", "application/json");
+    private final AtomicReference<Phase> current = new AtomicReference<>();
+
+    public static void main(String[] args) throws Exception {
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.startServer(false);
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+        AppManager.start();
+
+        boolean fair;
+        JfrRecorder.Window jfr = JfrRecorder.begin("rejection-flood");
+        try {
+            fair = new RejectionFloodRunner().run();
+        } finally {
+            JfrRecorder.end(jfr);
+            AppManager.stop();
+            WireMockManager.stopServer();
+        }
+        System.exit(fair ? 0 : 1);
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        int threads = ConfigReader.getFloodValidThreads();
+        ExecutorService valid = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            valid.submit(() -> {
+                while (running.get()) validIteration();
+            });
+        }
+
+        // прогрев обеих сторон без замеров
+        Thread.sleep(SETTLE_MS);
+        Phase baseline = new Phase(null);
+        current.set(baseline);
+        Thread.sleep(ConfigReader.getFloodBaselineMs());
+
+        List<Phase> floods = new ArrayList<>();
+        for (RejectionClass rejection : classes()) {
+            current.set(null);
+            Thread.sleep(SETTLE_MS);
+
+            Phase phase = new Phase(rejection);
+            current.set(phase);
+            flood(phase);
+            floods.add(phase);
+            System.out.println(String.format(Locale.ROOT, "%s: %.0f отказов/с, корректный трафик p99 %.1f мс",
+                    rejection, phase.flood.getCount() / Math.max(1e-3, phase.elapsedSec), phase.valid.getPercentileMs(99)));
+        }
+        current.set(null);
+        running.set(false);
+        valid.shutdown();
+        valid.awaitTermination(ConfigReader.getTimeout() * 2L, TimeUnit.MILLISECONDS);
+
+        List<String> starved = new ArrayList<>();
+        String report = formatReport(baseline, floods, starved);
+        System.out.println(report);
+
+        Path file = Paths.get("target/flood/flood-report.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        System.out.println("Отчет: " + file.toAbsolutePath());
+
+        return starved.isEmpty() && floods.stream().allMatch(phase -> phase.unexpected.get() == 0);
+    }
+
+    private static List<RejectionClass> classes() {
+        List<RejectionClass> classes = new ArrayList<>();
+        for (String name : ConfigReader.getFloodClasses().split(",")) {
+            if (!name.isBlank()) classes.add(RejectionClass.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+        }
+        return classes;
+    }
+
+    /**
+     * Отклоняемые запросы одного вида в течение flood.duration.ms
+     */
+    private void flood(Phase phase) throws InterruptedException {
+        Map<String, String> floodHeaders = phase.rejection == RejectionClass.WRONG_KEY
+                ? Map.of("X-Api-Key", "неправильный_ключ", "Accept", "application/json")
+                : headers;
+        Map<String, String> form = form(phase.rejection);
+
+        int concurrency = ConfigReader.getFloodConcurrency();
+        int rate = ConfigReader.getFloodRate();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + ConfigReader.getFloodDurationMs() * 1_000_000L;
+
+        for (long sent = 0; System.nanoTime() < deadline; sent++) {
+            if (rate > 0) {
+                long due = startedAt + sent * 1_000_000_000L / rate;
+                while (System.nanoTime() < due) LockSupport.parkNanos(due - System.nanoTime());
+            }
+            inFlight.acquire();
+            long sentAt = System.nanoTime();
+            floodClient.postAsync(floodHeaders, form).whenComplete((response, error) -> {
+                try {
+                    record(phase, System.nanoTime() - sentAt, response, error);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(concurrency);
+        phase.elapsedSec = (System.nanoTime() - startedAt) / 1e9;
+    }
+
+    private static Map<String, String> form(RejectionClass rejection) {
+        switch (rejection) {
+            case MISSING_PARAMS:
+                return Collections.emptyMap();
+            case UNKNOWN_ACTION:
+                return Map.of("action", "UNKNOWN_ACTION", "token", newToken());
+            default:
+                return Map.of("action", "LOGIN", "token", newToken());
+        }
+    }
+
+    private static void record(Phase phase, long nanos, HttpResponse<String> response, Throwable error) {
+        phase.flood.recordNanos(nanos);
+
+        Throwable cause = error != null && error.getCause() != null ? error.getCause() : error;
+        String outcome;
+        if (response != null) {
+            outcome = "HTTP " + response.statusCode() + " " + EndpointClient.result(response.body());
+            if (response.statusCode() != phase.rejection.expectedStatus) phase.unexpected.incrementAndGet();
+        } else {
+            outcome = cause instanceof HttpTimeoutException ? "таймаут" : "ошибка: " + cause.getClass().getSimpleName();
+            phase.unexpected.incrementAndGet();
+        }
+        phase.outcomes.computeIfAbsent(outcome, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Корректные LOGIN, ACTION и LOGOUT с новым токеном; задержка каждого запроса пишется в текущую фазу.
+     * Сессия закрывается, чтобы хранилище сессий не росло за время замера и не искажало сравнение фаз.
+     */
+    private void validIteration() {
+        String token = newToken();
+        if (send("LOGIN", token)) {
+            send("ACTION", token);
+            send("LOGOUT", token);
+        }
+    }
+
+    private boolean send(String action, String token) {
+        Phase phase = current.get();
+        long startedAt = System.nanoTime();
+        boolean ok;
+        try {
+            HttpResponse<String> response = validClient.post(headers, Map.of("action", action, "token", token));
+            ok = "OK".equals(EndpointClient.result(response.body()));
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        // запрос, начатый между фазами, не попадает ни в одну
+        if (phase != null && phase == current.get()) {
+            phase.valid.recordNanos(System.nanoTime() - startedAt);
+            if (!ok) phase.validErrors.incrementAndGet();
+        }
+        return ok;
+    }
+
+    private String formatReport(Phase baseline, List<Phase> floods, List<String> starved) {
+        double tolerance = ConfigReader.getFloodTolerance();
+        double p50Limit = Math.max(baseline.valid.getPercentileMs(50) * tolerance, baseline.valid.getPercentileMs(50) + SLACK_MS);
+        double p99Limit = Math.max(baseline.valid.getPercentileMs(99) * tolerance, baseline.valid.getPercentileMs(99) + SLACK_MS);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== REJECTION FLOOD ===\n");
+        sb.append(String.format(Locale.ROOT, "Флуд: %d в полете, частота %s, %d мс на вид; корректный трафик: %d потоков, допуск x%.1f%n",
+                ConfigReader.getFloodConcurrency(), ConfigReader.getFloodRate() > 0 ? ConfigReader.getFloodRate() + "/с" : "максимальная",
+                ConfigReader.getFloodDurationMs(), ConfigReader.getFloodValidThreads(), tolerance));
+        sb.append(String.format(Locale.ROOT, "Без флуда: корректные запросы p50 %.1f / p99 %.1f мс (%d запросов), ошибок %d%n",
+                baseline.valid.getPercentileMs(50), baseline.valid.getPercentileMs(99), baseline.valid.getCount(), baseline.validErrors.get()));
+
+        Map<String, String> verdicts = new LinkedHashMap<>();
+        for (Phase phase : floods) {
+            sb.append(String.format(Locale.ROOT, "%s: %.0f отказов/с, p50 %.1f / p99 %.1f / max %.1f мс%n",
+                    phase.rejection, phase.flood.getCount() / Math.max(1e-3, phase.elapsedSec),
+                    phase.flood.getPercentileMs(50), phase.flood.getPercentileMs(99), phase.flood.getMaxMs()));
+            phase.outcomes.forEach((outcome, count) -> sb.append("  ").append(outcome).append(": ").append(count.get()).append("\n"));
+            if (phase.unexpected.get() > 0) {
+                sb.append("  Неожиданных исходов (ожидается HTTP ").append(phase.rejection.expectedStatus).append("): ")
+                        .append(phase.unexpected.get()).append("\n");
+            }
+
+            double p50 = phase.valid.getPercentileMs(50);
+            double p99 = phase.valid.getPercentileMs(99);
+            sb.append(String.format(Locale.ROOT, "  Корректные запросы: p50 %.1f / p99 %.1f мс (%d запросов, %.0f/с), ошибок %d%n",
+                    p50, p99, phase.valid.getCount(), phase.valid.getCount() / Math.max(1e-3, phase.elapsedSec), phase.validErrors.get()));
+
+            List<String> reasons = new ArrayList<>();
+            if (p50 > p50Limit) reasons.add(String.format(Locale.ROOT, "p50 %.1f > %.1f мс", p50, p50Limit));
+            if (p99 > p99Limit) reasons.add(String.format(Locale.ROOT, "p99 %.1f > %.1f мс", p99, p99Limit));
+            if (phase.validErrors.get() > 0) reasons.add("ошибок " + phase.validErrors.get());
+            if (phase.valid.getCount() == 0) reasons.add("ни одного ответа");
+            if (!reasons.isEmpty()) {
+                starved.add(phase.rejection + ": " + String.join(", ", reasons));
+            }
+            verdicts.put(phase.rejection.name(), reasons.isEmpty() ? "не вытесняет" : "ВЫТЕСНЯЕТ: " + String.join(", ", reasons));
+        }
+
+        sb.append("Корректный трафик:\n");
+        verdicts.forEach((rejection, verdict) -> sb.append("  ").append(rejection).append(" — ").append(verdict).append("\n"));
+        return sb.toString();
+    }
+
+    private static String newToken() {
+        return UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+    }
+}
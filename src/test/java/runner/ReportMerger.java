@@ -0,0 +1,179 @@
+package runner;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import utils.ForkReports;
+
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.events.XMLEvent;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Сборка отчетов Cucumber форков (cucumber-shard-0.json, cucumber-shard-1.xml, ...) в общие
+ * cucumber.json и cucumber.xml с постоянным расходом памяти: json копируется потоково по одной
+ * фиче через временный файл, xml — событиями StAX в два прохода (сначала итоги
+ * из корневых testsuite, затем testcase без изменений).
+ *
+ * Запуск после всех шардов: mvn test-compile exec:exec -Dexec.args="-Dshard.count=4 -cp %classpath runner.ReportMerger [каталог]"
+ * (или -Dfork.ids=a,b для форков с явным fork.id).
+ *
+ * Общий cucumber.json — источник длительностей для следующего шардирования (shard.durations.file).
+ * Html-отчеты остаются по форкам: это самодостаточные страницы, которые не сливаются.
+ */
+public class ReportMerger {
+    private static final String[] SUITE_COUNTERS = {"tests", "skipped", "failures", "errors"};
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Paths.get(args.length > 0 ? args[0] : "target/cucumber-reports");
+
+        int json = mergeJson(ForkReports.forkFiles(dir.resolve("cucumber.json")), dir.resolve("cucumber.json"));
+        int xml = mergeJUnit(ForkReports.forkFiles(dir.resolve("cucumber.xml")), dir.resolve("cucumber.xml"));
+        System.out.println("Собрано отчетов: json " + json + ", junit " + xml + " -> " + dir.toAbsolutePath());
+    }
+
+    /**
+     * Фичи всех отчетов подряд в один массив. Фича, сценарии которой попали в разные шарды,
+     * встречается несколько раз — каждый раз со своими сценариями. Каждая фича потоково
+     * копируется во временный файл и дописывается в общий отчет, только если прочитана целиком:
+     * оборванный отчет форка не ломает общий массив, а в памяти держится только текущий токен.
+     *
+     * @return число собранных отчетов
+     */
+    static int mergeJson(List<Path> inputs, Path output) throws IOException {
+        if (inputs.isEmpty()) return 0;
+
+        JsonFactory factory = new JsonFactory();
+        Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+        Path feature = output.resolveSibling(output.getFileName() + ".feature.tmp");
+        int merged = 0;
+        boolean first = true;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+            out.write('[');
+            for (Path input : inputs) {
+                try (JsonParser parser = factory.createParser(input.toFile())) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        System.err.println("Пропущен (не массив фич): " + input);
+                        continue;
+                    }
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        try (JsonGenerator generator = factory.createGenerator(Files.newOutputStream(feature))) {
+                            generator.copyCurrentStructure(parser);
+                        }
+                        if (!first) out.write(',');
+                        Files.copy(feature, out);
+                        first = false;
+                    }
+                    merged++;
+                } catch (IOException e) {
+                    // Форк упал посреди записи: целые фичи до обрыва остаются в общем отчете, оборванная отбрасывается
+                    System.err.println("Отчет прочитан не полностью: " + input + ": " + e.getMessage());
+                }
+            }
+            out.write(']');
+        } finally {
+            Files.deleteIfExists(feature);
+        }
+        Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING);
+        return merged;
+    }
+
+    /**
+     * Один testsuite с суммой счетчиков и времени и всеми testcase форков
+     *
+     * @return число собранных отчетов
+     */
+    static int mergeJUnit(List<Path> inputs, Path output) throws IOException, XMLStreamException {
+        if (inputs.isEmpty()) return 0;
+
+        XMLInputFactory inputFactory = XMLInputFactory.newFactory();
+        long[] counters = new long[SUITE_COUNTERS.length];
+        BigDecimal time = BigDecimal.ZERO;
+        String name = "Cucumber";
+        String timestamp = null;
+
+        // Проход 1: только атрибуты корневого элемента каждого отчета
+        for (Path input : inputs) {
+            try (InputStream in = Files.newInputStream(input)) {
+                XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+                try {
+                    reader.nextTag();
+                    name = attribute(reader, "name", name);
+                    for (int i = 0; i < SUITE_COUNTERS.length; i++) {
+                        counters[i] += Long.parseLong(attribute(reader, SUITE_COUNTERS[i], "0"));
+                    }
+                    time = time.add(new BigDecimal(attribute(reader, "time", "0")));
+                    String started = reader.getAttributeValue(null, "timestamp");
+                    if (started != null && (timestamp == null || started.compareTo(timestamp) < 0)) {
+                        timestamp = started;
+                    }
+                } finally {
+                    reader.close();
+                }
+            }
+        }
+
+        // Проход 2: testcase всех отчетов внутрь общего testsuite
+        XMLEventFactory events = XMLEventFactory.newFactory();
+        Path tmp = output.resolveSibling(output.getFileName() + ".tmp");
+        int merged = 0;
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            XMLEventWriter writer = XMLOutputFactory.newFactory().createXMLEventWriter(out, StandardCharsets.UTF_8.name());
+            writer.add(events.createStartDocument(StandardCharsets.UTF_8.name(), "1.0"));
+            writer.add(events.createCharacters("\n"));
+            writer.add(events.createStartElement("", null, "testsuite"));
+            writer.add(events.createAttribute("name", name));
+            writer.add(events.createAttribute("time", time.toPlainString()));
+            for (int i = 0; i < SUITE_COUNTERS.length; i++) {
+                writer.add(events.createAttribute(SUITE_COUNTERS[i], String.valueOf(counters[i])));
+            }
+            if (timestamp != null) writer.add(events.createAttribute("timestamp", timestamp));
+
+            for (Path input : inputs) {
+                try (InputStream in = Files.newInputStream(input)) {
+                    XMLEventReader reader = inputFactory.createXMLEventReader(in);
+                    try {
+                        int depth = 0;
+                        while (reader.hasNext()) {
+                            XMLEvent event = reader.nextEvent();
+                            if (event.isStartElement() && depth++ == 0) continue;
+                            if (event.isEndElement() && --depth == 0) break;
+                            if (depth > 0) writer.add(event);
+                        }
+                    } finally {
+                        reader.close();
+                    }
+                }
+                merged++;
+            }
+
+            writer.add(events.createEndElement("", null, "testsuite"));
+            writer.add(events.createEndDocument());
+            writer.close();
+        }
+        Files.move(tmp, output, StandardCopyOption.REPLACE_EXISTING);
+        return merged;
+    }
+
+    private static String attribute(XMLStreamReader reader, String name, String defaultValue) {
+        String value = reader.getAttributeValue(null, name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
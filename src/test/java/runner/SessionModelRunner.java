@@ -0,0 +1,300 @@
+package runner;
+
+import utils.ConfigReader;
+import utils.EndpointClient;
+import utils.JfrRecorder;
+import utils.SessionModel;
+import utils.SessionModel.Action;
+import utils.SessionModel.State;
+import utils.WireMockManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Модельное тестирование сессий: случайные перемешанные последовательности LOGIN/ACTION/LOGOUT
+ * по многим токенам выполняются параллельно и сверяются с эталонной моделью (SessionModel).
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-Dmodel.runs=20 -cp %classpath runner.SessionModelRunner"
+ *
+ * Запросы разных токенов идут параллельно (model.parallelism потоков), запросы одного токена —
+ * по порядку, кроме групп одновременных запросов (доля model.concurrent.ratio), для которых
+ * допустим любой порядок выполнения. Найденное нарушение сжимается до минимальной
+ * воспроизводимой последовательности, отчет — target/model/model-report.txt.
+ */
+public class SessionModelRunner {
+    private static final int MAX_GROUP = 3;
+
+    /**
+     * Шаг программы: одно действие или группа одновременных действий над токеном
+     */
+    static final class Op {
+        final int token;
+        final List<Action> actions;
+
+        Op(int token, List<Action> actions) {
+            this.token = token;
+            this.actions = actions;
+        }
+
+        @Override
+        public String toString() {
+            return "t" + token + ": " + (actions.size() == 1 ? actions.get(0).toString()
+                    : actions.stream().map(Action::name).collect(Collectors.joining(" || ", "[", "]")));
+        }
+    }
+
+    static final class Violation {
+        final Op op;
+        final String token;
+        final Set<State> statesBefore;
+        final List<String> observed;
+
+        Violation(Op op, String token, Set<State> statesBefore, List<String> observed) {
+            this.op = op;
+            this.token = token;
+            this.statesBefore = statesBefore;
+            this.observed = observed;
+        }
+
+        @Override
+        public String toString() {
+            List<String> expected = statesBefore.stream()
+                    .map(state -> state + " -> " + op.actions.stream()
+                            .map(action -> SessionModel.expectedResult(state, action))
+                            .collect(Collectors.joining(", ")))
+                    .collect(Collectors.toList());
+            return op + " (" + token + ") вернул " + observed + ", модель (состояние -> ответы по порядку): " + expected;
+        }
+    }
+
+    private final EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+    private final Map<String, String> headers = Map.of(
+            "X-Api-Key", ConfigReader.getApiKey(),
+            "Accept", "application/json");
+    private final ExecutorService workers = Executors.newFixedThreadPool(ConfigReader.getModelParallelism());
+    private final SplittableRandom tokens = new SplittableRandom();
+    private final AtomicLong requests = new AtomicLong();
+    private int shrinkRuns;
+    private Violation lastFailure;
+
+    public static void main(String[] args) throws Exception {
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.startServer();
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+
+        SessionModelRunner runner = new SessionModelRunner();
+        boolean clean;
+        JfrRecorder.Window jfr = JfrRecorder.begin("session-model");
+        try {
+            clean = runner.run(ConfigReader.getModelSeed());
+        } finally {
+            JfrRecorder.end(jfr);
+            runner.workers.shutdownNow();
+            WireMockManager.stopServer();
+        }
+        System.exit(clean ? 0 : 1);
+    }
+
+    private boolean run(long seed) throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        int runs = ConfigReader.getModelRuns();
+        long startedAt = System.nanoTime();
+
+        for (int i = 0; i < runs; i++) {
+            List<Op> program = generate(random, ConfigReader.getModelOps(), ConfigReader.getModelTokens());
+            Violation violation = execute(program);
+            if (violation != null) {
+                System.out.println("Нарушение модели в прогоне " + (i + 1) + ": " + violation);
+                List<Op> prefix = program.subList(0, program.indexOf(violation.op) + 1);
+                return report(seed, i + 1, startedAt, violation, prefix, shrink(prefix, violation));
+            }
+        }
+        return report(seed, runs, startedAt, null, null, null);
+    }
+
+    private static List<Op> generate(SplittableRandom random, int ops, int tokenCount) {
+        double concurrentRatio = ConfigReader.getModelConcurrentRatio();
+        List<Op> program = new ArrayList<>(ops);
+        for (int i = 0; i < ops; i++) {
+            int size = random.nextDouble() < concurrentRatio ? 2 + random.nextInt(MAX_GROUP - 1) : 1;
+            List<Action> actions = new ArrayList<>(size);
+            for (int j = 0; j < size; j++) {
+                int roll = random.nextInt(100);
+                actions.add(roll < 30 ? Action.LOGIN : roll < 75 ? Action.ACTION : Action.LOGOUT);
+            }
+            program.add(new Op(random.nextInt(tokenCount), actions));
+        }
+        return program;
+    }
+
+    /**
+     * Выполняет программу на новых токенах: каждый токен — отдельная задача в пуле,
+     * шаги токена по порядку. Останавливается на первом нарушении.
+     */
+    private Violation execute(List<Op> program) {
+        Map<Integer, List<Op>> byToken = new LinkedHashMap<>();
+        program.forEach(op -> byToken.computeIfAbsent(op.token, k -> new ArrayList<>()).add(op));
+
+        AtomicReference<Violation> violation = new AtomicReference<>();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (List<Op> ops : byToken.values()) {
+            String token = freshToken();
+            tasks.add(workers.submit(() -> {
+                Set<State> states = EnumSet.of(State.NEW);
+                for (Op op : ops) {
+                    if (violation.get() != null) return;
+
+                    List<String> observed = send(token, op.actions);
+                    Set<State> after = SessionModel.apply(states, op.actions, observed);
+                    if (after.isEmpty()) {
+                        violation.compareAndSet(null, new Violation(op, token, states, observed));
+                        return;
+                    }
+                    states = after;
+                }
+            }));
+        }
+
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Сбой выполнения программы", e);
+            }
+        }
+        return violation.get();
+    }
+
+    private List<String> send(String token, List<Action> actions) {
+        List<CompletableFuture<String>> responses = actions.stream()
+                .map(action -> client.postAsync(headers, Map.of("action", action.name(), "token", token))
+                        .thenApply(response -> String.valueOf(EndpointClient.result(response.body())))
+                        .exceptionally(e -> "TRANSPORT: " + e.getMessage()))
+                .collect(Collectors.toList());
+        requests.addAndGet(actions.size());
+        return responses.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    /**
+     * Сжатие: сначала только шаги токена с нарушением, затем удаление блоков шагов
+     * (ddmin) и лишних действий в группах, пока нарушение воспроизводится.
+     *
+     * @return минимальная последовательность или null, если нарушение не воспроизводится на новых токенах
+     */
+    private List<Op> shrink(List<Op> prefix, Violation violation) {
+        List<Op> current = sameToken(prefix, violation);
+        if (!fails(current)) {
+            current = new ArrayList<>(prefix);
+            if (!fails(current)) return null;
+        }
+
+        for (int chunk = Math.max(1, current.size() / 2); chunk >= 1; chunk /= 2) {
+            for (int from = 0; from < current.size() && current.size() > 1; ) {
+                List<Op> candidate = new ArrayList<>(current);
+                candidate.subList(from, Math.min(from + chunk, candidate.size())).clear();
+                if (!candidate.isEmpty() && fails(candidate)) {
+                    current = candidate;
+                } else {
+                    from += chunk;
+                }
+            }
+        }
+
+        for (int i = 0; i < current.size(); i++) {
+            Op op = current.get(i);
+            for (int j = op.actions.size() - 1; j >= 0 && op.actions.size() > 1; j--) {
+                List<Action> actions = new ArrayList<>(op.actions);
+                actions.remove(j);
+                List<Op> candidate = new ArrayList<>(current);
+                candidate.set(i, new Op(op.token, actions));
+                if (fails(candidate)) {
+                    current = candidate;
+                    op = candidate.get(i);
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Гонки воспроизводятся не каждый раз: программа считается падающей,
+     * если нарушение проявилось хотя бы в одной из model.shrink.attempts попыток.
+     */
+    private boolean fails(List<Op> program) {
+        if (shrinkRuns >= ConfigReader.getModelShrinkMaxRuns()) return false;
+        for (int attempt = 0; attempt < ConfigReader.getModelShrinkAttempts(); attempt++) {
+            shrinkRuns++;
+            Violation violation = execute(program);
+            if (violation != null) {
+                lastFailure = violation;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Op> sameToken(List<Op> program, Violation violation) {
+        return program.stream().filter(op -> op.token == violation.op.token).collect(Collectors.toList());
+    }
+
+    private boolean report(long seed, int runs, long startedAt,
+                           Violation violation, List<Op> prefix, List<Op> minimal) throws IOException {
+        double elapsedSec = Math.max(1e-3, (System.nanoTime() - startedAt) / 1e9);
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== SESSION MODEL ===\n");
+        sb.append(String.format(Locale.ROOT, "Прогонов: %d, запросов: %d за %.1f с (%.0f/с), seed=%d%n",
+                runs, requests.get(), elapsedSec, requests.get() / elapsedSec, seed));
+
+        if (violation == null) {
+            sb.append("Нарушений модели нет\n");
+        } else if (minimal == null) {
+            sb.append("Нарушение: ").append(violation).append("\n");
+            sb.append("Не воспроизводится на новых токенах за ").append(shrinkRuns)
+                    .append(" прогонов (зависит от значения токена или редкая гонка). Шаги этого токена:\n");
+            sameToken(prefix, violation).forEach(op -> sb.append("  ").append(op).append("\n"));
+        } else {
+            sb.append("Минимальная последовательность (").append(minimal.size()).append(" шаг(ов), ")
+                    .append(shrinkRuns).append(" прогонов сжатия):\n");
+            minimal.forEach(op -> sb.append("  ").append(op).append("\n"));
+            sb.append("Нарушение: ").append(lastFailure).append("\n");
+        }
+
+        String report = sb.toString();
+        System.out.println(report);
+
+        Path file = Paths.get("target/model/model-report.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        System.out.println("Отчет: " + file.toAbsolutePath());
+        return violation == null;
+    }
+
+    private synchronized String freshToken() {
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) tokens.nextInt(256);
+        }
+        return HexFormat.of().withUpperCase().formatHex(bytes);
+    }
+}
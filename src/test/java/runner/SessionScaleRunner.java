@@ -0,0 +1,318 @@
+package runner;
+
+import utils.AppManager;
+import utils.ConfigReader;
+import utils.EndpointClient;
+import utils.JfrRecorder;
+import utils.LatencyHistogram;
+import utils.WireMockManager;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Масштабирование хранилища сессий: число одновременно живых сессий растет уровнями
+ * 1, 10, 100, ... до session.scale.max (LOGOUT не делается), на каждом уровне последовательно
+ * замеряются ACTION по случайным живым токенам и LOGOUT дополнительно открытых сессий,
+ * а также RSS приложения (если известен pid: app.jar или app.pid).
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-Dsession.scale.max=200000 -Dapp.jar=app.jar -cp %classpath runner.SessionScaleRunner"
+ *
+ * Стоимость запроса должна оставаться примерно постоянной: медиана ACTION или LOGOUT выше лучшей медианы
+ * меньших уровней, умноженной на session.scale.tolerance, помечается как рост. Отчет — target/session-scale/scale-report.txt.
+ */
+public class SessionScaleRunner {
+    private static final int WARMUP_CYCLES = 200;
+    // Абсолютный допуск для очень быстрых ответов, где коэффициент меньше шума
+    private static final double SLACK_MS = 2.0;
+    // Доля неуспешных LOGIN при наборе уровня, после которой замеры теряют смысл
+    private static final double MAX_LOGIN_FAILURES = 0.01;
+
+    static final class Level {
+        final int sessions;
+        final LatencyHistogram login = new LatencyHistogram();
+        final LatencyHistogram action = new LatencyHistogram();
+        final LatencyHistogram logout = new LatencyHistogram();
+        double loginRate;
+        long rssKb = -1;
+        long errors;
+
+        Level(int sessions) {
+            this.sessions = sessions;
+        }
+    }
+
+    private final EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+    private final Map<String, String> headers = Map.of(
+            "X-Api-Key", ConfigReader.getApiKey(),
+            "Accept", "application/json");
+    private final SplittableRandom random = new SplittableRandom();
+    private final AtomicLong loginFailures = new AtomicLong();
+    private final long pid = AppManager.targetPid();
+
+    // Живые сессии: null — LOGIN не удался
+    private String[] tokens;
+
+    public static void main(String[] args) throws Exception {
+        if (ConfigReader.isWireMockEnabled()) {
+            // сотни тысяч обращений приложения к моку: журнал запросов WireMock не нужен
+            WireMockManager.startServer(false);
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+        AppManager.start();
+
+        boolean constant;
+        JfrRecorder.Window jfr = JfrRecorder.begin("session-scale");
+        try {
+            constant = new SessionScaleRunner().run();
+        } finally {
+            JfrRecorder.end(jfr);
+            AppManager.stop();
+            WireMockManager.stopServer();
+        }
+        System.exit(constant ? 0 : 1);
+    }
+
+    private boolean run() throws IOException, InterruptedException {
+        warmUp();
+
+        List<Integer> sessionLevels = levels(ConfigReader.getSessionScaleMax(), ConfigReader.getSessionScaleFactor());
+        tokens = new String[sessionLevels.get(sessionLevels.size() - 1)];
+        List<Level> levels = new ArrayList<>();
+        String aborted = null;
+
+        int live = 0;
+        for (int target : sessionLevels) {
+            Level level = new Level(target);
+            long startedAt = System.nanoTime();
+            rampUp(live, target, level);
+            level.loginRate = (target - live) / Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+            live = target;
+
+            if (loginFailures.get() > MAX_LOGIN_FAILURES * target) {
+                aborted = String.format(Locale.ROOT, "Прервано на уровне %d: неуспешных LOGIN %d", target, loginFailures.get());
+                break;
+            }
+
+            measure(level);
+            level.rssKb = AppManager.residentMemoryKb(pid);
+            levels.add(level);
+            System.out.println(String.format(Locale.ROOT, "Сессий %d: ACTION p50 %.2f мс, LOGOUT p50 %.2f мс",
+                    target, level.action.getPercentileMs(50), level.logout.getPercentileMs(50)));
+        }
+
+        List<String> growth = new ArrayList<>();
+        String report = formatReport(levels, aborted, growth);
+        System.out.println(report);
+
+        Path file = Paths.get("target/session-scale/scale-report.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        System.out.println("Отчет: " + file.toAbsolutePath());
+
+        return aborted == null && growth.isEmpty();
+    }
+
+    /**
+     * 1, factor, factor^2, ... и max последним уровнем
+     */
+    static List<Integer> levels(int max, int factor) {
+        List<Integer> levels = new ArrayList<>();
+        for (long level = 1; level < max; level *= Math.max(2, factor)) {
+            levels.add((int) level);
+        }
+        levels.add(Math.max(1, max));
+        return levels;
+    }
+
+    /**
+     * Полные циклы LOGIN -> ACTION -> LOGOUT до замеров в session.scale.parallelism потоков: прогрев JIT
+     * обеих сторон и пула соединений (на одном-двух соединениях последовательные запросы попадают
+     * на задержанный ACK, и первые уровни показывают ~40 мс вместо стоимости запроса)
+     */
+    private void warmUp() throws InterruptedException {
+        int threads = ConfigReader.getSessionScaleParallelism();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < WARMUP_CYCLES; i++) {
+            executor.submit(() -> {
+                String token = newToken();
+                send("LOGIN", token, null);
+                send("ACTION", token, null);
+                send("LOGOUT", token, null);
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(ConfigReader.getTimeout() * 3L * WARMUP_CYCLES, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Открывает сессии с номерами from..to-1 в session.scale.parallelism потоков
+     */
+    private void rampUp(int from, int to, Level level) throws InterruptedException {
+        int threads = ConfigReader.getSessionScaleParallelism();
+        AtomicInteger next = new AtomicInteger(from);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(() -> {
+                int index;
+                while ((index = next.getAndIncrement()) < to) {
+                    String token = newToken();
+                    if (send("LOGIN", token, level.login)) {
+                        tokens[index] = token;
+                    } else {
+                        loginFailures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        executor.shutdown();
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка набора сессий", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Последовательные замеры на одном соединении: ACTION по случайным живым сессиям,
+     * затем LOGOUT сессий, открытых сверх уровня, — число живых сессий не меняется
+     */
+    private void measure(Level level) {
+        int samples = ConfigReader.getSessionScaleSamples();
+        for (int i = 0; i < samples; i++) {
+            String token = tokens[random.nextInt(level.sessions)];
+            if (token == null) continue;
+            if (!send("ACTION", token, level.action)) level.errors++;
+        }
+
+        List<String> extra = new ArrayList<>(samples);
+        for (int i = 0; i < samples; i++) {
+            String token = newToken();
+            if (send("LOGIN", token, null)) extra.add(token);
+        }
+        for (String token : extra) {
+            if (!send("LOGOUT", token, level.logout)) level.errors++;
+        }
+    }
+
+    /**
+     * @param histogram куда записать задержку или null
+     * @return ответ OK
+     */
+    private boolean send(String action, String token, LatencyHistogram histogram) {
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.post(headers, Map.of("action", action, "token", token));
+            if (histogram != null) histogram.recordNanos(System.nanoTime() - startedAt);
+            return "OK".equals(EndpointClient.result(response.body()));
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private String formatReport(List<Level> levels, String aborted, List<String> growth) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== SESSION SCALE ===\n");
+        sb.append(String.format(Locale.ROOT, "Замеров на уровень: %d, набор сессий в %d потоков, допуск роста x%.1f%n",
+                ConfigReader.getSessionScaleSamples(), ConfigReader.getSessionScaleParallelism(), ConfigReader.getSessionScaleTolerance()));
+        sb.append(String.format(Locale.ROOT, "%10s %12s %10s %18s %18s %10s %12s %7s%n",
+                "Сессий", "LOGIN/с", "LOGIN p50", "ACTION p50/p99", "LOGOUT p50/p99", "RSS, МБ", "КБ/сессию", "Ошибок"));
+
+        Level first = levels.isEmpty() ? null : levels.get(0);
+        for (Level level : levels) {
+            String perSession = "-";
+            if (first != null && level != first && level.rssKb >= 0 && first.rssKb >= 0) {
+                perSession = String.format(Locale.ROOT, "%.2f", (level.rssKb - first.rssKb) / (double) (level.sessions - first.sessions));
+            }
+            sb.append(String.format(Locale.ROOT, "%10d %12.0f %10.2f %8.2f / %7.2f %8.2f / %7.2f %10s %12s %7d%n",
+                    level.sessions, level.loginRate, level.login.getPercentileMs(50),
+                    level.action.getPercentileMs(50), level.action.getPercentileMs(99),
+                    level.logout.getPercentileMs(50), level.logout.getPercentileMs(99),
+                    level.rssKb < 0 ? "-" : String.format(Locale.ROOT, "%.1f", level.rssKb / 1024.0),
+                    perSession, level.errors));
+        }
+        if (first != null && first.rssKb < 0) {
+            sb.append("RSS приложения: недоступен (нужен app.jar или app.pid)\n");
+        }
+
+        if (levels.size() > 1) {
+            verdict(sb, "ACTION", levels, level -> level.action, growth);
+            verdict(sb, "LOGOUT", levels, level -> level.logout, growth);
+        }
+        if (aborted != null) sb.append(aborted).append("\n");
+        growth.forEach(line -> sb.append("РОСТ: ").append(line).append("\n"));
+        return sb.toString();
+    }
+
+    /**
+     * Сравнение медианы каждого уровня с лучшей медианой меньших уровней (шумный первый уровень
+     * не скрывает рост) и показатель степени k в p50 ~ сессии^k (наименьшие квадраты в логарифмах):
+     * k около 0 — постоянная стоимость, около 1 — линейная
+     */
+    private static void verdict(StringBuilder sb, String action, List<Level> levels,
+                                Function<Level, LatencyHistogram> histogram, List<String> growth) {
+        double first = histogram.apply(levels.get(0)).getPercentileMs(50);
+        double best = first;
+        int bestSessions = levels.get(0).sessions;
+
+        double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0;
+        double worst = first;
+        int worstSessions = levels.get(0).sessions;
+        for (Level level : levels) {
+            double p50 = histogram.apply(level).getPercentileMs(50);
+            double limit = Math.max(best * ConfigReader.getSessionScaleTolerance(), best + SLACK_MS);
+            double x = Math.log(level.sessions);
+            double y = Math.log(Math.max(1e-3, p50));
+            sumX += x;
+            sumY += y;
+            sumXX += x * x;
+            sumXY += x * y;
+            if (p50 > worst) {
+                worst = p50;
+                worstSessions = level.sessions;
+            }
+            if (p50 > limit) {
+                growth.add(String.format(Locale.ROOT, "%s p50 %.2f мс при %d сессиях, при %d сессиях %.2f мс (предел %.2f мс)",
+                        action, p50, level.sessions, bestSessions, best, limit));
+            }
+            if (p50 < best) {
+                best = p50;
+                bestSessions = level.sessions;
+            }
+        }
+        int n = levels.size();
+        double denominator = n * sumXX - sumX * sumX;
+        double exponent = denominator == 0 ? 0 : (n * sumXY - sumX * sumY) / denominator;
+
+        sb.append(String.format(Locale.ROOT, "%s: медиана %.2f мс при %d сессиях, наибольшая %.2f мс (%d сессий), наименьшая %.2f мс (%d сессий), показатель степени %.3f%n",
+                action, first, levels.get(0).sessions, worst, worstSessions, best, bestSessions, exponent));
+    }
+
+    private static String newToken() {
+        return UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,100 @@
+package runner;
+
+import org.junit.platform.engine.FilterResult;
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.launcher.PostDiscoveryFilter;
+import utils.ConfigReader;
+import utils.ScenarioDurations;
+import utils.ScenarioIds;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Делит сценарии между JVM-форками с учетом их исторической длительности.
+ * Включается параметрами -Dshard.count=N -Dshard.index=0..N-1, регистрируется через ServiceLoader.
+ *
+ * Распределение — longest-processing-time-first: сценарии по убыванию длительности
+ * отдаются наименее загруженному шарду. Все форки видят одно дерево тестов и один отчет,
+ * поэтому вычисляют одинаковое распределение без координации.
+ *
+ * Шарды пишут отчеты в свои файлы (cucumber-shard-N.json), история — общий cucumber.json,
+ * собранный ReportMerger после всех шардов: он не меняется, пока идут шарды текущего прогона.
+ */
+public class ShardFilter implements PostDiscoveryFilter {
+    private final Map<String, Map<String, Integer>> assignments = new HashMap<>();
+
+    @Override
+    public FilterResult apply(TestDescriptor descriptor) {
+        int count = ConfigReader.getShardCount();
+        if (count <= 1 || !descriptor.isTest()) {
+            return FilterResult.included("шардирование выключено");
+        }
+
+        String id = ScenarioIds.of(descriptor);
+        if (id == null) {
+            return FilterResult.included("не сценарий Cucumber");
+        }
+
+        int index = ConfigReader.getShardIndex();
+        int shard = assignmentFor(root(descriptor), count).getOrDefault(id, index);
+        return FilterResult.includedIf(shard == index,
+                () -> id + " -> шард " + index,
+                () -> id + " -> шард " + shard);
+    }
+
+    private synchronized Map<String, Integer> assignmentFor(TestDescriptor root, int count) {
+        return assignments.computeIfAbsent(root.getUniqueId().toString(), key -> assign(root, count));
+    }
+
+    private Map<String, Integer> assign(TestDescriptor root, int count) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (TestDescriptor descriptor : root.getDescendants()) {
+            String id = descriptor.isTest() ? ScenarioIds.of(descriptor) : null;
+            if (id != null) unique.add(id);
+        }
+        List<String> scenarios = new ArrayList<>(unique);
+
+        Map<String, Long> history = ScenarioDurations.read(Paths.get(ConfigReader.getShardDurationsFile()));
+        long unknown = history.isEmpty()
+                ? 1_000_000_000L
+                : (long) history.values().stream().mapToLong(Long::longValue).average().orElse(1_000_000_000L);
+
+        scenarios.sort(Comparator.<String>comparingLong(id -> history.getOrDefault(id, unknown))
+                .reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        // [нагрузка, номер шарда]
+        PriorityQueue<long[]> shards = new PriorityQueue<>(
+                Comparator.<long[]>comparingLong(s -> s[0]).thenComparingLong(s -> s[1]));
+        for (int i = 0; i < count; i++) shards.add(new long[]{0, i});
+
+        Map<String, Integer> assignment = new HashMap<>();
+        for (String id : scenarios) {
+            long[] lightest = shards.poll();
+            assignment.put(id, (int) lightest[1]);
+            lightest[0] += history.getOrDefault(id, unknown);
+            shards.add(lightest);
+        }
+
+        System.out.println("=== ШАРДИРОВАНИЕ: " + scenarios.size() + " сценариев на " + count + " шард(ов), "
+                + "история: " + history.size() + " сценариев ===");
+        shards.stream()
+                .sorted(Comparator.comparingLong(s -> s[1]))
+                .forEach(s -> System.out.printf("Шард %d: ~%.1f с%n", s[1], s[0] / 1e9));
+        return assignment;
+    }
+
+    private static TestDescriptor root(TestDescriptor descriptor) {
+        TestDescriptor current = descriptor;
+        while (current.getParent().isPresent()) current = current.getParent().get();
+        return current;
+    }
+}
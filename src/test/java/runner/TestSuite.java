@@ -8,14 +8,15 @@ import org.junit.platform.suite.api.Suite;
 import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
 import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
 
-@Suite
+@Suite(failIfNoTests = false)
 @IncludeEngines("cucumber")
 @SelectClasspathResource("features")
 @ConfigurationParameter(key = GLUE_PROPERTY_NAME, value = "stepdefinitions,hooks")
 @ConfigurationParameter(key = PLUGIN_PROPERTY_NAME, value =
         "pretty," +
-                "html:target/cucumber-reports/cucumber.html," +
-                "json:target/cucumber-reports/cucumber.json," +
-                "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm")
+                "plugins.ForkHtmlFormatter:target/cucumber-reports/cucumber.html," +
+                "plugins.ForkJsonFormatter:target/cucumber-reports/cucumber.json," +
+                "io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm," +
+                "plugins.PerfStatsPlugin,plugins.HarnessProfilePlugin")
 public class TestSuite {
 }
\ No newline at end of file
@@ -0,0 +1,189 @@
+package runner;
+
+import utils.ConfigReader;
+import utils.EndpointClient;
+import utils.JfrRecorder;
+import utils.TokenFuzzer;
+import utils.TokenFuzzer.FuzzCase;
+import utils.WireMockManager;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фаззинг токена LOGIN: поток вариантов из TokenFuzzer отправляется параллельными пачками,
+ * каждый ответ сверяется с оракулом ^[0-9A-F]{32}$ (корректный токен — OK, иначе — ERROR с 4xx).
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-Dfuzz.cases=1000000 -cp %classpath runner.TokenFuzzRunner"
+ *
+ * Расхождения группируются по категории и виду, в отчет target/fuzz/fuzz-report.txt попадает
+ * несколько примеров на группу; случай воспроизводится по fuzz.seed и индексу.
+ */
+public class TokenFuzzRunner {
+    private static final int SAMPLES_PER_GROUP = 5;
+    private static final int MAX_SHOWN_TOKEN = 48;
+
+    private static class Group {
+        final AtomicLong count = new AtomicLong();
+        final List<String> samples = new ArrayList<>();
+    }
+
+    private final EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+    private final Map<String, String> headers = Map.of(
+            "X-Api-Key", ConfigReader.getApiKey(),
+            "Accept", "application/json");
+
+    private final Map<TokenFuzzer.Category, AtomicLong> totals = new EnumMap<>(TokenFuzzer.Category.class);
+    private final Map<String, Group> mismatches = new ConcurrentHashMap<>();
+    private final AtomicLong mismatchCount = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.startServer();
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+
+        boolean clean;
+        JfrRecorder.Window jfr = JfrRecorder.begin("fuzz");
+        try {
+            clean = new TokenFuzzRunner().run(ConfigReader.getFuzzSeed(), ConfigReader.getFuzzCases(), ConfigReader.getFuzzBatchSize());
+        } finally {
+            JfrRecorder.end(jfr);
+            WireMockManager.stopServer();
+        }
+        System.exit(clean ? 0 : 1);
+    }
+
+    private boolean run(long seed, long cases, int batchSize) throws IOException {
+        for (TokenFuzzer.Category category : TokenFuzzer.Category.values()) {
+            totals.put(category, new AtomicLong());
+        }
+
+        long startedAt = System.nanoTime();
+        long progressStep = Math.max(batchSize, cases / 10);
+        long sent = 0;
+
+        Iterator<FuzzCase> iterator = TokenFuzzer.stream(seed, cases).iterator();
+        List<CompletableFuture<Void>> batch = new ArrayList<>(batchSize);
+        while (iterator.hasNext()) {
+            batch.clear();
+            for (int i = 0; i < batchSize && iterator.hasNext(); i++) {
+                batch.add(check(iterator.next()));
+            }
+            CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0])).join();
+
+            long before = sent;
+            sent += batch.size();
+            if (sent / progressStep != before / progressStep) {
+                System.out.printf(Locale.ROOT, "Фаззинг: %d/%d, расхождений %d%n", sent, cases, mismatchCount.get());
+            }
+        }
+
+        String report = formatReport(seed, sent, (System.nanoTime() - startedAt) / 1e9);
+        System.out.println(report);
+
+        Path file = Paths.get("target/fuzz/fuzz-report.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report, StandardCharsets.UTF_8);
+        System.out.println("Отчет: " + file.toAbsolutePath());
+
+        return mismatchCount.get() == 0;
+    }
+
+    private CompletableFuture<Void> check(FuzzCase fuzzCase) {
+        totals.get(fuzzCase.category).incrementAndGet();
+        boolean valid = TokenFuzzer.isValidToken(fuzzCase.token);
+
+        Map<String, String> form = Map.of("action", "LOGIN", "token", fuzzCase.token);
+        return client.postAsync(headers, form)
+                .thenAccept(response -> {
+                    String kind = verdict(valid, response);
+                    if (kind != null) {
+                        mismatch(fuzzCase, kind, response.statusCode() + "/" + EndpointClient.result(response.body()));
+                    }
+                })
+                .exceptionally(e -> {
+                    mismatch(fuzzCase, "TRANSPORT", String.valueOf(e.getCause() != null ? e.getCause() : e));
+                    return null;
+                });
+    }
+
+    /**
+     * @return вид расхождения с оракулом или null, если ответ ожидаемый
+     */
+    private static String verdict(boolean valid, HttpResponse<String> response) {
+        int status = response.statusCode();
+        String result = EndpointClient.result(response.body());
+
+        if (valid) {
+            return status == 200 && "OK".equals(result) ? null : "REJECTED_VALID";
+        }
+        if ("OK".equals(result)) return "ACCEPTED_INVALID";
+        if (status >= 500) return "SERVER_ERROR";
+        return "ERROR".equals(result) ? null : "UNEXPECTED_RESPONSE";
+    }
+
+    private void mismatch(FuzzCase fuzzCase, String kind, String observed) {
+        mismatchCount.incrementAndGet();
+        Group group = mismatches.computeIfAbsent(fuzzCase.category + " " + kind, k -> new Group());
+        group.count.incrementAndGet();
+        synchronized (group) {
+            if (group.samples.size() < SAMPLES_PER_GROUP) {
+                group.samples.add("#" + fuzzCase.index + " " + show(fuzzCase.token) + " -> " + observed);
+            }
+        }
+    }
+
+    private String formatReport(long seed, long sent, double elapsedSec) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== TOKEN FUZZ ===\n");
+        sb.append(String.format(Locale.ROOT, "Случаев: %d за %.1f с (%.0f/с), seed=%d%n",
+                sent, elapsedSec, sent / Math.max(1e-3, elapsedSec), seed));
+        totals.forEach((category, count) -> sb.append("  ").append(category).append(": ").append(count.get()).append("\n"));
+
+        if (mismatches.isEmpty()) {
+            sb.append("Расхождений с оракулом нет\n");
+            return sb.toString();
+        }
+
+        sb.append("Расхождений с оракулом: ").append(mismatchCount.get()).append("\n");
+        new TreeMap<>(mismatches).forEach((key, group) -> {
+            sb.append("  ").append(key).append(": ").append(group.count.get()).append("\n");
+            group.samples.forEach(sample -> sb.append("    ").append(sample).append("\n"));
+        });
+        return sb.toString();
+    }
+
+    /**
+     * Токен для отчета: управляющие и не-ASCII символы экранируются, длинные обрезаются
+     */
+    private static String show(String token) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (int i = 0; i < token.length() && i < MAX_SHOWN_TOKEN; i++) {
+            char c = token.charAt(i);
+            if (c >= 0x20 && c < 0x7F) {
+                sb.append(c);
+            } else {
+                sb.append(String.format(Locale.ROOT, "\\u%04X", (int) c));
+            }
+        }
+        sb.append('"');
+        if (token.length() > MAX_SHOWN_TOKEN) sb.append("…(len=").append(token.length()).append(')');
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,229 @@
+package runner;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import utils.ConfigReader;
+import utils.EndpointClient;
+import utils.JfrRecorder;
+import utils.LatencyHistogram;
+import utils.WireMockManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Воспроизведение записанного трафика (TrafficRecorder) против новой сборки приложения.
+ *
+ * Запуск: mvn test-compile exec:exec -Dexec.args="-Dreplay.speed=max -cp %classpath runner.TrafficReplayer [файл]"
+ *
+ * Файл читается потоково: заглушки WireMock восстанавливаются по строкам "mock" раньше запросов,
+ * которые их используют. Запросы отправляются с исходными интервалами, ускоренными в replay.speed раз
+ * (max — без пауз); порядок запросов и заглушек одного токена сохраняется, разные токены идут
+ * параллельно (не больше replay.max.inflight запросов одновременно).
+ */
+public class TrafficReplayer {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAX_REPORTED_MISMATCHES = 20;
+
+    private final EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+    private final int maxInFlight = ConfigReader.getReplayMaxInFlight();
+    private final Semaphore inFlight = new Semaphore(maxInFlight);
+    private final Map<String, CompletableFuture<Void>> sessions = new ConcurrentHashMap<>();
+    private final Set<String> restoredMocks = new HashSet<>();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final ConcurrentLinkedQueue<String> mismatchSamples = new ConcurrentLinkedQueue<>();
+
+    public static void main(String[] args) throws Exception {
+        Path file = Paths.get(args.length > 0 ? args[0] : ConfigReader.getTrafficFile());
+        double speed = parseSpeed(ConfigReader.getReplaySpeed());
+
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.startServer();
+        }
+        JfrRecorder.Window jfr = JfrRecorder.begin("replay");
+        try {
+            String report = new TrafficReplayer().replay(file, speed);
+            System.out.println(report);
+
+            Path reportFile = file.toAbsolutePath().resolveSibling("replay-report.txt");
+            Files.writeString(reportFile, report, StandardCharsets.UTF_8);
+            System.out.println("Отчет: " + reportFile);
+        } finally {
+            JfrRecorder.end(jfr);
+            WireMockManager.stopServer();
+        }
+    }
+
+    private String replay(Path file, double speed) throws IOException, InterruptedException {
+        long startedAt = System.nanoTime();
+        long firstAt = -1;
+
+        try (BufferedReader reader = open(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                JsonNode event = MAPPER.readTree(line);
+
+                if ("mock".equals(event.path("type").asText())) {
+                    restoreMock(event);
+                    continue;
+                }
+
+                long at = event.path("at").asLong();
+                if (firstAt < 0) firstAt = at;
+                if (speed > 0) {
+                    long dueNanos = (long) ((at - firstAt) * 1_000_000 / speed);
+                    long waitMs = (dueNanos - (System.nanoTime() - startedAt)) / 1_000_000;
+                    if (waitMs > 0) Thread.sleep(waitMs);
+                }
+
+                inFlight.acquire();
+                send(event);
+            }
+        }
+
+        // Ожидание всех запросов в полете
+        inFlight.acquire(maxInFlight);
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        return formatReport(file, speed, elapsedNanos);
+    }
+
+    /**
+     * Заглушка для обращения приложения к моку. Если в теле есть токен, заглушка ставится
+     * в очередь этого токена: ответ мока на тот же запрос мог смениться по ходу сессии.
+     */
+    private void restoreMock(JsonNode event) {
+        String method = event.path("method").asText("POST");
+        String url = event.path("url").asText();
+        String body = event.path("body").asText(null);
+        int status = event.path("status").asInt(200);
+        String contentType = event.path("contentType").asText(null);
+        String response = event.path("response").asText(null);
+
+        // Одинаковые обращения к моку повторяются, заглушка нужна одна
+        if (!restoredMocks.add(method + " " + url + "\n" + body + "\n" + status + "\n" + response)) return;
+
+        Runnable stub = () -> WireMockManager.setupMockFromRecording(method, url, body, status, contentType, response);
+        String token = tokenOf(body);
+        CompletableFuture<Void> previous = token == null ? null : sessions.get(token);
+        if (previous == null) {
+            stub.run();
+        } else {
+            chain(token, previous.thenRun(stub));
+        }
+    }
+
+    /**
+     * Отправка запроса после завершения предыдущего запроса с тем же токеном
+     */
+    private void send(JsonNode event) {
+        Map<String, String> headers = MAPPER.convertValue(event.path("headers"), new TypeReference<>() {});
+        Map<String, String> form = MAPPER.convertValue(event.path("form"), new TypeReference<>() {});
+        int expectedStatus = event.path("status").asInt();
+        String expectedResult = EndpointClient.result(event.path("response").asText(null));
+        String token = form.get("token");
+
+        CompletableFuture<Void> previous = token == null ? null : sessions.get(token);
+        CompletableFuture<Void> start = previous == null ? CompletableFuture.completedFuture(null) : previous;
+
+        CompletableFuture<Void> request = start
+                .thenCompose(ignored -> {
+                    long sentAt = System.nanoTime();
+                    return client.postAsync(headers, form)
+                            .thenAccept(response -> {
+                                latency.recordNanos(System.nanoTime() - sentAt);
+                                compare(form, expectedStatus, expectedResult, response);
+                            });
+                })
+                .exceptionally(e -> {
+                    errors.incrementAndGet();
+                    addSample("ошибка " + form + ": " + e.getMessage());
+                    return null;
+                })
+                .whenComplete((ignored, e) -> {
+                    sent.incrementAndGet();
+                    inFlight.release();
+                });
+
+        if (token != null) chain(token, request);
+    }
+
+    private void chain(String token, CompletableFuture<Void> last) {
+        sessions.put(token, last);
+        last.whenComplete((ignored, e) -> sessions.remove(token, last));
+    }
+
+    private void compare(Map<String, String> form, int expectedStatus, String expectedResult, HttpResponse<String> response) {
+        String actualResult = EndpointClient.result(response.body());
+        if (response.statusCode() != expectedStatus || !Objects.equals(expectedResult, actualResult)) {
+            mismatches.incrementAndGet();
+            addSample(form + ": ожидалось " + expectedStatus + "/" + expectedResult
+                    + ", получено " + response.statusCode() + "/" + actualResult);
+        }
+    }
+
+    private void addSample(String sample) {
+        if (mismatchSamples.size() < MAX_REPORTED_MISMATCHES) mismatchSamples.add(sample);
+    }
+
+    private String formatReport(Path file, double speed, long elapsedNanos) {
+        double elapsedSec = Math.max(1e-3, elapsedNanos / 1e9);
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== REPLAY ===\n");
+        sb.append("Файл: ").append(file).append("\n");
+        sb.append("Скорость: ").append(speed > 0 ? speed + "x" : "max").append("\n");
+        sb.append("Заглушек восстановлено: ").append(restoredMocks.size()).append("\n");
+        sb.append(String.format(Locale.ROOT, "Запросов: %d за %.2f с (%.1f rps)%n", sent.get(), elapsedSec, sent.get() / elapsedSec));
+        sb.append(String.format(Locale.ROOT, "Задержка, мс: p50=%.2f p95=%.2f p99=%.2f max=%.2f%n",
+                latency.getPercentileMs(50), latency.getPercentileMs(95), latency.getPercentileMs(99), latency.getMaxMs()));
+        sb.append("Расхождений с записью: ").append(mismatches.get()).append(", ошибок: ").append(errors.get()).append("\n");
+        mismatchSamples.forEach(sample -> sb.append("  ").append(sample).append("\n"));
+        return sb.toString();
+    }
+
+
+    private static String tokenOf(String formBody) {
+        if (formBody == null) return null;
+        for (String pair : formBody.split("&")) {
+            if (pair.startsWith("token=")) return URLDecoder.decode(pair.substring(6), StandardCharsets.UTF_8);
+        }
+        return null;
+    }
+
+    private static BufferedReader open(Path file) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 64 * 1024);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static double parseSpeed(String speed) {
+        return "max".equalsIgnoreCase(speed) ? 0 : Double.parseDouble(speed);
+    }
+}
@@ -0,0 +1,330 @@
+package runner;
+
+import io.cucumber.junit.platform.engine.CucumberTestEngine;
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.discovery.FilePosition;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.junit.platform.launcher.listeners.SummaryGeneratingListener;
+import utils.AppManager;
+import utils.ConfigReader;
+import utils.WireMockManager;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.cucumber.junit.platform.engine.Constants.GLUE_PROPERTY_NAME;
+import static io.cucumber.junit.platform.engine.Constants.PLUGIN_PROPERTY_NAME;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectFile;
+import static org.junit.platform.launcher.EngineFilter.includeEngines;
+
+/**
+ * Долгоживущий раннер: держит JVM, WireMock и движок JUnit Platform прогретыми
+ * и при изменении фич или glue перезапускает только затронутые сценарии.
+ *
+ * Запуск: mvn test-compile exec:exec
+ *
+ * - изменение .feature: сценарии, у которых поменялись шаги, и новые сценарии;
+ * - изменение метода шага в stepdefinitions: сценарии с шагами, подходящими под его выражение
+ *   или под выражения шагов, которые вызывают его (в том числе через другие шаги);
+ * - любые другие правки glue (хелперы, hooks, utils): все сценарии.
+ * Исходники glue перекомпилируются в target/watch-classes и подгружаются новым загрузчиком.
+ */
+public class WatchRunner {
+    private static final Path FEATURES_DIR = Paths.get("src/test/resources/features");
+    private static final Path GLUE_SOURCES_DIR = Paths.get("src/test/java");
+    private static final Path WATCH_CLASSES_DIR = Paths.get("target/watch-classes");
+    private static final Path TEST_CLASSES_DIR = Paths.get("target/test-classes");
+
+    private final Map<Path, FeatureSnapshot> features = new HashMap<>();
+    private final Map<Path, String> glueSources = new HashMap<>();
+    private ClassLoader glueLoader;
+    private Launcher launcher;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("watch.mode", "true");
+        new WatchRunner().watch();
+    }
+
+    private void watch() throws IOException, InterruptedException {
+        // Классы прошлой сессии не должны перекрывать свежий mvn test-compile
+        deleteTree(WATCH_CLASSES_DIR);
+        Files.createDirectories(WATCH_CLASSES_DIR);
+        reloadGlue();
+
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.startServer();
+        }
+        // Приложение из app.jar живет между прогонами (@AfterAll в режиме watch его не останавливает)
+        // и останавливается при выходе из раннера, в том числе по Ctrl+C
+        Runtime.getRuntime().addShutdownHook(new Thread(AppManager::stop, "watch-app-stop"));
+
+        for (Path feature : listFiles(FEATURES_DIR, ".feature")) features.put(feature, FeatureSnapshot.parse(feature));
+        for (Path source : listFiles(GLUE_SOURCES_DIR, ".java")) glueSources.put(source, Files.readString(source));
+
+        // Первый полный прогон прогревает JIT, сканирование glue и соединения
+        if (Boolean.parseBoolean(ConfigReader.getProperty("watch.initial.run", "true"))) {
+            run(allScenarios(), "первый прогон");
+        }
+
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            registerTree(watcher, FEATURES_DIR);
+            registerTree(watcher, GLUE_SOURCES_DIR);
+            System.out.println("=== WATCH: ожидание изменений в " + FEATURES_DIR + " и " + GLUE_SOURCES_DIR + " ===");
+
+            long debounceMs = Long.parseLong(ConfigReader.getProperty("watch.debounce.ms", "200"));
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                WatchKey key = watcher.take();
+                do {
+                    collect(key, changed);
+                    key.reset();
+                } while ((key = watcher.poll(debounceMs, TimeUnit.MILLISECONDS)) != null);
+
+                onChange(changed, watcher);
+            }
+        }
+    }
+
+    private void onChange(Set<Path> changed, WatchService watcher) throws IOException {
+        long startedAt = System.nanoTime();
+        Map<Path, List<Integer>> affected = new HashMap<>();
+        boolean glueChanged = false;
+        boolean everything = false;
+        Set<String> changedExpressions = new LinkedHashSet<>();
+
+        for (Path path : changed) {
+            if (Files.isDirectory(path)) {
+                registerTree(watcher, path);
+                continue;
+            }
+
+            String name = path.getFileName().toString();
+            if (name.endsWith(".feature")) {
+                FeatureSnapshot previous = features.remove(path);
+                if (!Files.exists(path)) continue;
+
+                FeatureSnapshot current = FeatureSnapshot.parse(path);
+                features.put(path, current);
+                List<Integer> lines = current.changedSince(previous);
+                if (!lines.isEmpty()) affected.computeIfAbsent(path, p -> new ArrayList<>()).addAll(lines);
+            } else if (name.endsWith(".java")) {
+                String before = glueSources.get(path);
+                String after = Files.exists(path) ? Files.readString(path) : null;
+                if (after != null && after.equals(before)) continue;
+                if (after == null) glueSources.remove(path); else glueSources.put(path, after);
+
+                glueChanged = true;
+                Set<String> expressions = path.startsWith(GLUE_SOURCES_DIR.resolve("stepdefinitions"))
+                        ? GlueChanges.changedStepExpressions(before, after)
+                        : null;
+                if (expressions == null) everything = true; else changedExpressions.addAll(expressions);
+            }
+        }
+
+        if (glueChanged) {
+            if (!compileGlue()) return;
+            reloadGlue();
+        }
+
+        if (everything) {
+            affected = allScenarios();
+        } else if (!changedExpressions.isEmpty()) {
+            for (FeatureSnapshot feature : features.values()) {
+                for (FeatureSnapshot.ScenarioInfo scenario : feature.scenarios.values()) {
+                    if (GlueChanges.matchesAny(changedExpressions, scenario.steps)) {
+                        affected.computeIfAbsent(feature.file, p -> new ArrayList<>()).add(scenario.line);
+                    }
+                }
+            }
+        }
+
+        System.out.printf("Изменения обработаны за %d мс%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        if (affected.isEmpty()) {
+            System.out.println("Затронутых сценариев нет: " + changed);
+        } else {
+            run(affected, String.valueOf(changed));
+        }
+    }
+
+    private void run(Map<Path, List<Integer>> scenarios, String reason) {
+        List<DiscoverySelector> selectors = new ArrayList<>();
+        scenarios.forEach((file, lines) -> lines.stream().distinct()
+                .forEach(line -> selectors.add(selectFile(file.toFile(), FilePosition.from(line)))));
+
+        LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                .selectors(selectors)
+                .filters(includeEngines("cucumber"))
+                .configurationParameter(GLUE_PROPERTY_NAME, "stepdefinitions,hooks")
+                .configurationParameter(PLUGIN_PROPERTY_NAME, "pretty,io.qameta.allure.cucumber7jvm.AllureCucumber7Jvm")
+                .configurationParameter("cucumber.publish.quiet", "true")
+                .build();
+
+        System.out.println("\n=== WATCH: запуск " + selectors.size() + " сценари(я/ев), причина: " + reason + " ===");
+        SummaryGeneratingListener summary = new SummaryGeneratingListener();
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        long startedAt = System.nanoTime();
+        try {
+            thread.setContextClassLoader(glueLoader);
+            launcher.execute(request, summary);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+
+        summary.getSummary().printFailuresTo(new PrintWriter(System.out), 5);
+        System.out.printf("=== WATCH: успешно %d, упало %d, %d мс ===%n",
+                summary.getSummary().getTestsSucceededCount(),
+                summary.getSummary().getTotalFailureCount(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Cucumber ищет glue через загрузчик своего движка, поэтому вместе с glue
+     * перезагружается и движок cucumber-junit-platform-engine (а с ним и Launcher).
+     */
+    private void reloadGlue() {
+        glueLoader = newGlueLoader();
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try {
+            thread.setContextClassLoader(glueLoader);
+            launcher = LauncherFactory.create();
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private boolean compileGlue() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            System.err.println("javac недоступен (нужен JDK), перекомпиляция glue невозможна");
+            return false;
+        }
+
+        Files.createDirectories(WATCH_CLASSES_DIR);
+        List<String> arguments = new ArrayList<>(List.of(
+                "-d", WATCH_CLASSES_DIR.toString(),
+                "-cp", System.getProperty("java.class.path"),
+                "-encoding", StandardCharsets.UTF_8.name(),
+                "-parameters",
+                "-nowarn"));
+        glueSources.keySet().forEach(source -> arguments.add(source.toString()));
+
+        long startedAt = System.nanoTime();
+        int exitCode = compiler.run(null, null, null, arguments.toArray(new String[0]));
+        System.out.printf("Перекомпиляция glue: %s за %d мс%n", exitCode == 0 ? "OK" : "ОШИБКА",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+        return exitCode == 0;
+    }
+
+    private Map<Path, List<Integer>> allScenarios() {
+        Map<Path, List<Integer>> all = new HashMap<>();
+        features.forEach((file, snapshot) -> all.put(file, snapshot.scenarios.values().stream()
+                .map(s -> s.line)
+                .collect(Collectors.toList())));
+        return all;
+    }
+
+    private static void collect(WatchKey key, Set<Path> changed) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+            changed.add(dir.resolve((Path) event.context()));
+        }
+    }
+
+    private static void registerTree(WatchService watcher, Path root) throws IOException {
+        try (Stream<Path> dirs = Files.walk(root)) {
+            for (Path dir : dirs.filter(Files::isDirectory).collect(Collectors.toList())) {
+                dir.register(watcher,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private static List<Path> listFiles(Path root, String extension) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(p -> p.toString().endsWith(extension)).collect(Collectors.toList());
+        }
+    }
+
+    private static ClassLoader newGlueLoader() {
+        try {
+            URL[] urls = {
+                    WATCH_CLASSES_DIR.toAbsolutePath().toUri().toURL(),
+                    TEST_CLASSES_DIR.toAbsolutePath().toUri().toURL(),
+                    CucumberTestEngine.class.getProtectionDomain().getCodeSource().getLocation()
+            };
+            return new GlueClassLoader(urls, WatchRunner.class.getClassLoader());
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Загружает glue заново (child-first), но оставляет общими WireMock, приложение, пул токенов
+     * и классы раннера, чтобы сервер моков, процесс app.jar и сессии не пересоздавались между прогонами
+     * (новый AppManager запустил бы второй app.jar на тот же порт).
+     */
+    private static class GlueClassLoader extends URLClassLoader {
+        private static final List<String> RELOADABLE = List.of(
+                "stepdefinitions.", "hooks.", "utils.", "plugins.", "io.cucumber.junit.platform.engine.");
+        private static final Set<String> SHARED = Set.of(
+                "utils.WireMockManager", "utils.AppManager", "utils.TokenPool", "utils.TrafficRecorder");
+
+        GlueClassLoader(URL[] urls, ClassLoader parent) {
+            super(urls, parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            boolean reloadable = RELOADABLE.stream().anyMatch(name::startsWith) && !SHARED.contains(name);
+            if (!reloadable) return super.loadClass(name, resolve);
+
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) loaded = findClass(name);
+                if (resolve) resolveClass(loaded);
+                return loaded;
+            }
+        }
+    }
+}
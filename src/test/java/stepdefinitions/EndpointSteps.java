@@ -5,14 +5,37 @@ import io.qameta.allure.Allure;
 import io.restassured.RestAssured;
 import io.restassured.response.Response;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import utils.AppManager;
 import utils.ConfigReader;
+import utils.DatasetReplay;
+import utils.EndpointClient;
+import utils.HarnessProfile;
+import utils.HttpUtils;
+import utils.LargeFormBody;
+import utils.PerfStats;
+import utils.RecoveryProbe;
+import utils.ResponseSchemas;
+import utils.ScenarioWatchdog;
 import utils.TokenGenerator;
+import utils.TokenPool;
+import utils.TrafficRecorder;
 import utils.WireMockManager;
 
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 
 import static io.restassured.RestAssured.given;
 
@@ -27,6 +50,21 @@ public class EndpointSteps {
     private Response firstUserResponse;
     private Response secondUserResponse;
 
+    // ====== large payload ======
+    private LargeFormBody largeBody;
+    private int largeStatus;
+    private String largeResponse;
+    private double largeLatencyMs;
+    private EndpointClient largeClient;
+    private long rssBeforeKb = -1;
+    private long rssAfterKb = -1;
+
+    // ====== restart ======
+    private RecoveryProbe.Result recovery;
+
+    // ====== datasets ======
+    private DatasetReplay.Result dataset;
+
     // ====== track last request (for mock-order issues) ======
     private String lastAction;
     private String lastToken;
@@ -40,7 +78,9 @@ public class EndpointSteps {
 
     public EndpointSteps() {
         RestAssured.baseURI = ConfigReader.getBaseUrl();
+        RestAssured.config = HttpUtils.configWithTimeouts();
         RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+        RestAssured.replaceFiltersWith(HarnessProfile.restAssuredFilter());
 
         defaultHeaders.put("X-Api-Key", ConfigReader.getApiKey());
         defaultHeaders.put("Content-Type", "application/x-www-form-urlencoded");
@@ -75,7 +115,7 @@ public class EndpointSteps {
     private void switchToFallbackApiKeyIfNeeded(String reason) {
         // ✅ если автофикс выключен (негативный тест), то не трогаем ключ
         if (!apiKeyAutoFixEnabled) {
-            Allure.addAttachment("Auto-fix API Key skipped", "text/plain",
+            attach("Auto-fix API Key skipped", "text/plain",
                     "Reason: " + reason + "\n" +
                             "apiKeyAutoFixEnabled=false (negative test mode)\n" +
                             "Current X-Api-Key: " + defaultHeaders.get("X-Api-Key"));
@@ -90,7 +130,7 @@ public class EndpointSteps {
         defaultHeaders.put("X-Api-Key", fallbackApiKey);
         apiKeyAutoFixed = true;
 
-        Allure.addAttachment("Auto-fix API Key", "text/plain",
+        attach("Auto-fix API Key", "text/plain",
                 "Reason: " + reason + "\n" +
                         "Switched X-Api-Key from: " + current + "\n" +
                         "To fallbackApiKey: " + fallbackApiKey);
@@ -116,35 +156,36 @@ public class EndpointSteps {
                     "Сервис не ответил на GET /"
             );
 
+            // Проверка /endpoint выполняется и при включенном пуле токенов: пул заменяет только аутентификацию
             String token = generateHexToken32();
             if (ConfigReader.isWireMockEnabled()) {
                 WireMockManager.setupMockAuthSuccess(token);
             }
 
-            int endpointStatus = given()
+            Response endpointResponse = given()
                     .headers(defaultHeaders)
                     .formParam("action", "LOGIN")
                     .formParam("token", token)
                     .when()
-                    .post("/endpoint")
-                    .then()
-                    .extract()
-                    .statusCode();
+                    .post("/endpoint");
+            recordTraffic("LOGIN", token, endpointResponse);
+            int endpointStatus = endpointResponse.getStatusCode();
 
             Assertions.assertFalse(endpointStatus >= 500, "Сервис отвечает 5xx на /endpoint: " + endpointStatus);
+            String endpointCheck = String.valueOf(endpointStatus);
 
-            Allure.addAttachment(
+            attach(
                     "Проверка доступности",
                     "text/plain",
                     "BaseURL: " + ConfigReader.getBaseUrl() +
                             "\nGET / -> " + pingStatus +
-                            "\nPOST /endpoint (LOGIN) -> " + endpointStatus +
+                            "\nPOST /endpoint (LOGIN) -> " + endpointCheck +
                             "\nHeaders: " + defaultHeaders +
                             "\nAPI key auto-fixed: " + apiKeyAutoFixed +
                             "\nAPI key auto-fix enabled: " + apiKeyAutoFixEnabled
             );
         } catch (Exception e) {
-            Allure.addAttachment("Ошибка доступности", "text/plain", e.toString());
+            attach("Ошибка доступности", "text/plain", e.toString());
             throw e;
         }
     }
@@ -163,7 +204,7 @@ public class EndpointSteps {
             apiKeyAutoFixEnabled = true;
         }
 
-        Allure.addAttachment("Установка API ключа", "text/plain",
+        attach("Установка API ключа", "text/plain",
                 "API Key: " + apiKey + "\n" +
                         "apiKeyAutoFixEnabled=" + apiKeyAutoFixEnabled);
     }
@@ -174,6 +215,12 @@ public class EndpointSteps {
 
     @Дано("пользователь успешно аутентифицирован с токеном")
     public void пользователь_успешно_аутентифицирован_с_токеном() {
+        if (TokenPool.isEnabled()) {
+            currentToken = TokenPool.lease();
+            attach("Аутентификация", "text/plain", "Токен из пула: " + maskToken(currentToken));
+            return;
+        }
+
         currentToken = generateHexToken32();
 
         if (ConfigReader.isWireMockEnabled()) {
@@ -182,7 +229,7 @@ public class EndpointSteps {
 
         sendRequest("LOGIN", currentToken);
         Assertions.assertEquals("OK", safeJson("result"), "Аутентификация должна быть успешной");
-        Allure.addAttachment("Аутентификация", "text/plain", "Токен: " + maskToken(currentToken));
+        attach("Аутентификация", "text/plain", "Токен: " + maskToken(currentToken));
     }
 
     @Когда("пользователь отправляет запрос с действием {string} и корректным токеном")
@@ -297,7 +344,7 @@ public class EndpointSteps {
             WireMockManager.setupMockActionSuccess(currentToken);
         }
 
-        Allure.addAttachment(
+        attach(
                 "Внешний сервис доступен",
                 "text/plain",
                 "WireMockEnabled=" + ConfigReader.isWireMockEnabled() + "\n" +
@@ -309,7 +356,7 @@ public class EndpointSteps {
     public void внешний_сервис_аутентификации_возвращает_успешный_ответ() {
         if (ConfigReader.isWireMockEnabled() && currentToken != null) {
             WireMockManager.setupMockAuthSuccess(currentToken);
-            Allure.addAttachment("Настройка мока", "text/plain",
+            attach("Настройка мока", "text/plain",
                     "Мок auth success для токена: " + maskToken(currentToken));
         }
     }
@@ -318,7 +365,7 @@ public class EndpointSteps {
     public void внешний_сервис_аутентификации_возвращает_ошибку() {
         if (ConfigReader.isWireMockEnabled() && currentToken != null) {
             WireMockManager.setupMockAuthError(currentToken);
-            Allure.addAttachment("Настройка мока", "text/plain",
+            attach("Настройка мока", "text/plain",
                     "Мок auth error для токена: " + maskToken(currentToken));
         }
 
@@ -326,7 +373,7 @@ public class EndpointSteps {
         if (response != null && "LOGIN".equalsIgnoreCase(lastAction)) {
             String result = safeJson("result");
             if ("OK".equalsIgnoreCase(result)) {
-                Allure.addAttachment("Перезапуск LOGIN после установки мока ошибки",
+                attach("Перезапуск LOGIN после установки мока ошибки",
                         "text/plain",
                         "Повторяем LOGIN для токена: " + maskToken(currentToken));
                 sendRequest("LOGIN", currentToken);
@@ -391,7 +438,7 @@ public class EndpointSteps {
             WireMockManager.setupMockActionSuccess(secondUserToken);
         }
 
-        Allure.addAttachment("Два пользователя", "text/plain",
+        attach("Два пользователя", "text/plain",
                 "first=" + maskToken(firstUserToken) + "\nsecond=" + maskToken(secondUserToken));
     }
 
@@ -454,6 +501,160 @@ public class EndpointSteps {
                 "Результат второго пользователя не совпал");
     }
 
+    // ===========================
+    //     large payload steps
+    // ===========================
+
+    @Когда("пользователь отправляет LOGIN с токеном размером {int} МБ")
+    public void пользователь_отправляет_LOGIN_с_токеном_размером_МБ(int megabytes) {
+        sendLargeRequest(LargeFormBody.longToken(megabytes * 1024L * 1024L));
+    }
+
+    @Когда("пользователь отправляет LOGIN с {int} повторами параметра token")
+    public void пользователь_отправляет_LOGIN_с_повторами_параметра_token(int count) {
+        currentToken = generateHexToken32();
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.setupMockAuthSuccess(currentToken);
+        }
+        sendLargeRequest(LargeFormBody.repeatedToken(currentToken, count));
+    }
+
+    @Когда("пользователь отправляет действие длиной {int} КБ с корректным токеном")
+    public void пользователь_отправляет_действие_длиной_КБ_с_корректным_токеном(int kilobytes) {
+        currentToken = generateHexToken32();
+        sendLargeRequest(LargeFormBody.longAction(currentToken, kilobytes * 1024L));
+    }
+
+    @Тогда("большой запрос отклонен не дольше чем за {int} мс")
+    public void большой_запрос_отклонен_не_дольше_чем_за_мс(int maxMs) {
+        Assertions.assertNotNull(largeBody, "Большой запрос не отправлялся");
+        Assertions.assertNotEquals(401, largeStatus, "Запрос отклонен по API ключу, а не по содержимому тела");
+        Assertions.assertTrue(largeStatus == -1 || largeStatus >= 400 && largeStatus < 500,
+                "Ожидался отказ 4xx или закрытие соединения, получен HTTP " + largeStatus + ": " + abbreviate(largeResponse));
+        Assertions.assertTrue(largeLatencyMs <= maxMs,
+                String.format(Locale.ROOT, "Отказ занял %.0f мс, допустимо %d мс", largeLatencyMs, maxMs));
+    }
+
+    @Тогда("большой запрос обработан без ошибки сервера не дольше чем за {int} мс")
+    public void большой_запрос_обработан_без_ошибки_сервера_не_дольше_чем_за_мс(int maxMs) {
+        Assertions.assertNotNull(largeBody, "Большой запрос не отправлялся");
+        Assertions.assertTrue(largeStatus < 500,
+                "Ошибка сервера на большой запрос: HTTP " + largeStatus + ": " + abbreviate(largeResponse));
+        Assertions.assertTrue(largeLatencyMs <= maxMs,
+                String.format(Locale.ROOT, "Обработка заняла %.0f мс, допустимо %d мс", largeLatencyMs, maxMs));
+    }
+
+    /**
+     * Рост RSS по одному запросу зависит от JIT и GC, поэтому запрос повторяется large.memory.requests раз:
+     * пик RSS сравнивается с RSS после первого (прогревающего) запроса.
+     */
+    @И("память приложения выросла не более чем на {int} МБ")
+    public void память_приложения_выросла_не_более_чем_на_МБ(int maxMb) {
+        if (rssBeforeKb < 0 || rssAfterKb < 0) {
+            attach("Память приложения", "text/plain",
+                    "Процесс приложения недоступен (нужен app.jar или app.pid), проверка памяти пропущена");
+            return;
+        }
+        long pid = AppManager.targetPid();
+        int requests = ConfigReader.getLargeMemoryRequests();
+        long peakKb = rssAfterKb;
+        for (int i = 0; i < requests; i++) {
+            ScenarioWatchdog.checkCurrent();
+            try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.HTTP)) {
+                largeClient().postStreamAsync(defaultHeaders, largeBody).join();
+            } catch (CompletionException e) {
+                // закрытие соединения сервером — допустимый отказ, важна только память
+            }
+            peakKb = Math.max(peakKb, AppManager.residentMemoryKb(pid));
+        }
+
+        double growthMb = (peakKb - rssAfterKb) / 1024.0;
+        attach("Память приложения", "text/plain", String.format(Locale.ROOT,
+                "RSS после первого запроса: %d КБ%nПик RSS за %d повторов: %d КБ%nРост: %.1f МБ",
+                rssAfterKb, requests, peakKb, growthMb));
+        Assertions.assertTrue(growthMb <= maxMb,
+                String.format(Locale.ROOT, "RSS приложения вырос на %.1f МБ (допустимо %d МБ) за %d повторов запроса: %s",
+                        growthMb, maxMb, requests, largeBody.description()));
+    }
+
+    // ===========================
+    //        dataset steps
+    // ===========================
+
+    @Когда("строки набора данных {string} отправляются на endpoint")
+    public void строки_набора_данных_отправляются_на_endpoint(String name) throws IOException {
+        // Внешний сервис подтверждает любой токен: заглушки под сотни тысяч токенов не регистрируются
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+
+        dataset = DatasetReplay.run(datasetPath(name));
+
+        String report = dataset.report();
+        System.out.println(report);
+        Path reportFile = Paths.get("target", "datasets", dataset.path.getFileName() + "-report.txt");
+        Files.createDirectories(reportFile.getParent());
+        Files.writeString(reportFile, report);
+        attach("Набор данных " + dataset.path.getFileName(), "text/plain", report);
+    }
+
+    @Тогда("все строки набора данных возвращают ожидаемый результат")
+    public void все_строки_набора_данных_возвращают_ожидаемый_результат() {
+        Assertions.assertNotNull(dataset, "Набор данных не прогонялся");
+        Assertions.assertTrue(dataset.rows() > 0, "В наборе данных нет строк: " + dataset.path);
+        Assertions.assertEquals(0, dataset.mismatches(),
+                "Расхождений с ожидаемым результатом: " + dataset.mismatches() + " из " + dataset.rows()
+                        + ", подробности в target/datasets/" + dataset.path.getFileName() + "-report.txt");
+    }
+
+    /**
+     * -Ddataset.path заменяет файл сценария того же формата (CSV или NDJSON), чтобы выгрузка
+     * прогонялась один раз; иначе путь от рабочего каталога или ресурс classpath
+     */
+    private Path datasetPath(String name) {
+        String override = ConfigReader.getDatasetPath();
+        if (!override.isEmpty() && datasetFormat(override).equals(datasetFormat(name))) return Paths.get(override);
+
+        Path file = Paths.get(name);
+        if (Files.exists(file)) return file;
+
+        URL resource = getClass().getClassLoader().getResource(name);
+        Assertions.assertNotNull(resource, "Набор данных не найден ни на диске, ни в classpath: " + name);
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Некорректный путь набора данных: " + resource, e);
+        }
+    }
+
+    // ===========================
+    //       restart steps
+    // ===========================
+
+    @Когда("приложение перезапускается")
+    public void приложение_перезапускается() {
+        restartApplication(true);
+    }
+
+    @Когда("приложение аварийно перезапускается")
+    public void приложение_аварийно_перезапускается() {
+        restartApplication(false);
+    }
+
+    @Тогда("приложение восстанавливается не дольше чем за {int} мс")
+    public void приложение_восстанавливается_не_дольше_чем_за_мс(int maxMs) {
+        Assertions.assertNotNull(recovery, "Приложение не перезапускалось");
+        Assertions.assertTrue(recovery.firstSuccessMs >= 0 && recovery.firstSuccessMs <= maxMs,
+                "Нет успешного LOGIN за " + maxMs + " мс после перезапуска:\n" + recovery);
+    }
+
+    @И("задержка приложения устанавливается не дольше чем за {int} мс")
+    public void задержка_приложения_устанавливается_не_дольше_чем_за_мс(int maxMs) {
+        Assertions.assertNotNull(recovery, "Приложение не перезапускалось");
+        Assertions.assertTrue(recovery.steadyMs >= 0 && recovery.steadyMs <= maxMs,
+                "Задержка не вернулась к обычной за " + maxMs + " мс после перезапуска:\n" + recovery);
+    }
+
     // ===========================
     //        assertions steps
     // ===========================
@@ -465,7 +666,7 @@ public class EndpointSteps {
         Assertions.assertEquals(expectedResult, actualResult,
                 "Ожидаемый результат: " + expectedResult + ", получен: " + actualResult);
 
-        Allure.addAttachment("Проверка результата", "text/plain",
+        attach("Проверка результата", "text/plain",
                 "Ожидалось: " + expectedResult + "\n" +
                         "Получено: " + actualResult + "\n" +
                         "HTTP: " + response.getStatusCode());
@@ -485,7 +686,7 @@ public class EndpointSteps {
         Assertions.assertTrue("OK".equals(result) || "ERROR".equals(result),
                 "После LOGIN ACTION должен вернуть OK или ERROR, но вернул: " + result);
 
-        Allure.addAttachment("Проверка сохранения токена", "text/plain",
+        attach("Проверка сохранения токена", "text/plain",
                 "Токен: " + maskToken(currentToken) + "\n" +
                         "Результат ACTION: " + result);
     }
@@ -496,7 +697,7 @@ public class EndpointSteps {
         String message = safeJson("message");
         Assertions.assertNotNull(message, "Сообщение об ошибке должно присутствовать");
         Assertions.assertFalse(message.isEmpty(), "Сообщение об ошибке не должно быть пустым");
-        Allure.addAttachment("Сообщение об ошибке", "text/plain", message);
+        attach("Сообщение об ошибке", "text/plain", message);
     }
 
     // ===========================
@@ -514,14 +715,112 @@ public class EndpointSteps {
         return false;
     }
 
+    private static String datasetFormat(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".csv")) return "csv";
+        if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl")) return "ndjson";
+        throw new IllegalArgumentException("Неизвестный формат набора данных (нужен .csv, .ndjson или .jsonl): " + name);
+    }
+
+    /**
+     * Запись запроса к /endpoint для воспроизведения (-Dtraffic.record=true)
+     */
+    private void recordTraffic(String action, String token, Response r) {
+        if (!TrafficRecorder.isEnabled()) return;
+
+        Map<String, String> form = new LinkedHashMap<>();
+        if (token != null) form.put("token", token);
+        if (action != null) form.put("action", action);
+        TrafficRecorder.recordRequest(new LinkedHashMap<>(defaultHeaders), form, r.getStatusCode(), r.getBody().asString());
+    }
+
+    /**
+     * Проверка ответа по JSON-схеме OK/ERROR (-Dschema.validation.enabled)
+     */
+    private void checkContract(Response r) {
+        if (!ConfigReader.isSchemaValidationEnabled()) return;
+        String violation = ResponseSchemas.validate(r.getBody().asString());
+        if (violation != null) {
+            attach("Нарушение контракта ответа", "text/plain", violation);
+            Assertions.fail("Ответ /endpoint не соответствует схеме: " + violation);
+        }
+    }
+
+    private EndpointClient largeClient() {
+        if (largeClient == null) largeClient = new EndpointClient(ConfigReader.getBaseUrl());
+        return largeClient;
+    }
+
+    /**
+     * Отправка большого тела потоком (тело не держится в памяти теста). Закрытие соединения
+     * сервером до ответа — тоже отказ (largeStatus = -1), таймаут — падение шага.
+     */
+    private void sendLargeRequest(LargeFormBody body) {
+        largeBody = body;
+        long pid = AppManager.targetPid();
+        rssBeforeKb = AppManager.residentMemoryKb(pid);
+
+        long startedAt = System.nanoTime();
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.HTTP)) {
+            HttpResponse<String> r = largeClient().postStreamAsync(defaultHeaders, body).join();
+            largeStatus = r.statusCode();
+            largeResponse = r.body();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof HttpTimeoutException) {
+                Assertions.fail("Нет ответа на большой запрос (" + body.description() + ") за " + ConfigReader.getTimeout() + " мс");
+            }
+            largeStatus = -1;
+            largeResponse = cause.toString();
+        }
+        largeLatencyMs = (System.nanoTime() - startedAt) / 1e6;
+        rssAfterKb = AppManager.residentMemoryKb(pid);
+
+        attach("Большой запрос", "text/plain", String.format(Locale.ROOT,
+                "Тело: %s, %.2f МБ%nОтвет: %s%nЗадержка: %.1f мс%nRSS приложения: %s%n%s",
+                body.description(), body.length() / (1024.0 * 1024.0),
+                largeStatus == -1 ? "соединение закрыто сервером" : "HTTP " + largeStatus,
+                largeLatencyMs,
+                rssBeforeKb < 0 ? "недоступен" : rssBeforeKb + " КБ -> " + rssAfterKb + " КБ",
+                abbreviate(largeResponse)));
+    }
+
+    /**
+     * Перезапуск возможен только для приложения, запущенного тестами из app.jar, иначе сценарий пропускается
+     */
+    private void restartApplication(boolean graceful) {
+        Assumptions.assumeTrue(AppManager.isRunning(), "Приложение не запущено из app.jar, перезапуск невозможен");
+
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.setupMockCatchAllSuccess();
+        }
+        recovery = new RecoveryProbe().restartAndMeasure(graceful);
+
+        // Сессии токенов из пула открывались в прежнем процессе
+        TokenPool.invalidate();
+
+        attach("Восстановление после перезапуска", "text/plain", recovery.toString());
+    }
+
+    private static String abbreviate(String text) {
+        if (text == null) return "null";
+        return text.length() > 500 ? text.substring(0, 500) + "…" : text;
+    }
+
     private String safeJson(String key) {
-        try {
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.JSON)) {
             return response != null ? response.jsonPath().getString(key) : null;
         } catch (Exception e) {
             return null;
         }
     }
 
+    private static void attach(String name, String type, String content) {
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.ALLURE)) {
+            Allure.addAttachment(name, type, content);
+        }
+    }
+
     private Response sendRequestForToken(String action, String token) {
         try {
             var request = given().headers(defaultHeaders);
@@ -529,7 +828,12 @@ public class EndpointSteps {
             if (token != null) request.formParam("token", token);
             if (action != null) request.formParam("action", action);
 
+            if ("LOGOUT".equals(action) && token != null) TokenPool.discard(token);
+
+            long startedAt = System.nanoTime();
             Response r = request.post("/endpoint");
+            PerfStats.recordAction(action, System.nanoTime() - startedAt);
+            recordTraffic(action, token, r);
 
             // auto-fix key (retry once) — но только если включено
             if (apiKeyAutoFixEnabled && isInvalidApiKeyResponse(r)) {
@@ -538,12 +842,13 @@ public class EndpointSteps {
                 if (token != null) retryReq.formParam("token", token);
                 if (action != null) retryReq.formParam("action", action);
                 Response retry = retryReq.post("/endpoint");
-                Allure.addAttachment("Retry response (multi-user)", "application/json", retry.getBody().asString());
-                Allure.addAttachment("Retry status (multi-user)", "text/plain", String.valueOf(retry.getStatusCode()));
+                recordTraffic(action, token, retry);
+                attach("Retry response (multi-user)", "application/json", retry.getBody().asString());
+                attach("Retry status (multi-user)", "text/plain", String.valueOf(retry.getStatusCode()));
                 r = retry;
             }
 
-            Allure.addAttachment("Запрос (multi-user)", "text/plain",
+            attach("Запрос (multi-user)", "text/plain",
                     "URL: " + ConfigReader.getBaseUrl() + "/endpoint\n" +
                             "Метод: POST\n" +
                             "Заголовки: " + defaultHeaders + "\n" +
@@ -551,15 +856,16 @@ public class EndpointSteps {
                             ", token=" + (token != null ? maskToken(token) : "null") +
                             "\napiKeyAutoFixEnabled=" + apiKeyAutoFixEnabled);
 
-            Allure.addAttachment("Ответ (multi-user)", "application/json", r.getBody().asString());
-            Allure.addAttachment("Статус код (multi-user)", "text/plain", String.valueOf(r.getStatusCode()));
+            attach("Ответ (multi-user)", "application/json", r.getBody().asString());
+            attach("Статус код (multi-user)", "text/plain", String.valueOf(r.getStatusCode()));
+            checkContract(r);
 
             lastAction = action;
             lastToken = token;
 
             return r;
         } catch (Exception e) {
-            Allure.addAttachment("Ошибка запроса (multi-user)", "text/plain", e.toString());
+            attach("Ошибка запроса (multi-user)", "text/plain", e.toString());
             throw e;
         }
     }
@@ -571,7 +877,13 @@ public class EndpointSteps {
             if (token != null) request.formParam("token", token);
             if (action != null) request.formParam("action", action);
 
+            // Токен из пула после LOGOUT больше не годится для аренды
+            if ("LOGOUT".equals(action) && token != null) TokenPool.discard(token);
+
+            long startedAt = System.nanoTime();
             response = request.post("/endpoint");
+            PerfStats.recordAction(action, System.nanoTime() - startedAt);
+            recordTraffic(action, token, response);
 
             // auto-fix key (retry once) — но только если включено
             if (apiKeyAutoFixEnabled && isInvalidApiKeyResponse(response)) {
@@ -580,11 +892,12 @@ public class EndpointSteps {
                 if (token != null) retryReq.formParam("token", token);
                 if (action != null) retryReq.formParam("action", action);
                 response = retryReq.post("/endpoint");
-                Allure.addAttachment("Retry response", "application/json", response.getBody().asString());
-                Allure.addAttachment("Retry status", "text/plain", String.valueOf(response.getStatusCode()));
+                recordTraffic(action, token, response);
+                attach("Retry response", "application/json", response.getBody().asString());
+                attach("Retry status", "text/plain", String.valueOf(response.getStatusCode()));
             }
 
-            Allure.addAttachment("Запрос", "text/plain",
+            attach("Запрос", "text/plain",
                     "URL: " + ConfigReader.getBaseUrl() + "/endpoint\n" +
                             "Метод: POST\n" +
                             "Заголовки: " + defaultHeaders + "\n" +
@@ -592,14 +905,15 @@ public class EndpointSteps {
                             ", token=" + (token != null ? maskToken(token) : "null") +
                             "\napiKeyAutoFixEnabled=" + apiKeyAutoFixEnabled);
 
-            Allure.addAttachment("Ответ", "application/json", response.getBody().asString());
-            Allure.addAttachment("Статус код", "text/plain", String.valueOf(response.getStatusCode()));
+            attach("Ответ", "application/json", response.getBody().asString());
+            attach("Статус код", "text/plain", String.valueOf(response.getStatusCode()));
+            checkContract(response);
 
             lastAction = action;
             lastToken = token;
 
         } catch (Exception e) {
-            Allure.addAttachment("Ошибка запроса", "text/plain", e.toString());
+            attach("Ошибка запроса", "text/plain", e.toString());
             throw e;
         }
     }
@@ -625,7 +939,7 @@ public class EndpointSteps {
                 "Сообщение не похоже на 'неизвестное действие': " + message
         );
 
-        Allure.addAttachment("Проверка неизвестного действия", "text/plain", message);
+        attach("Проверка неизвестного действия", "text/plain", message);
     }
 
     // ===== MERGE: missing steps for edge_cases.feature =====
@@ -642,7 +956,7 @@ public class EndpointSteps {
                 "action", "invalid action", "allowed", "null", "missing", "required", "отсутств", "обяз");
         Assertions.assertTrue(ok, "Сообщение не похоже на 'отсутствие действия': " + message);
 
-        Allure.addAttachment("Проверка ошибки (нет action)", "text/plain", message);
+        attach("Проверка ошибки (нет action)", "text/plain", message);
     }
 
     @И("сообщение об ошибке указывает на отсутствие токена")
@@ -657,7 +971,7 @@ public class EndpointSteps {
                 "token", "must not be null", "null", "missing", "required", "не должно равняться null", "отсутств", "обяз");
         Assertions.assertTrue(ok, "Сообщение не похоже на 'отсутствие токена': " + message);
 
-        Allure.addAttachment("Проверка ошибки (нет token)", "text/plain", message);
+        attach("Проверка ошибки (нет token)", "text/plain", message);
     }
 
     @И("сообщение об ошибке указывает на отсутствие обязательных параметров")
@@ -672,7 +986,7 @@ public class EndpointSteps {
                 "token", "action", "invalid action", "must not be null", "не должно равняться null", "null", "missing", "required", "обяз", "отсутств");
         Assertions.assertTrue(ok, "Сообщение не похоже на 'нет обязательных параметров': " + message);
 
-        Allure.addAttachment("Проверка ошибки (нет обязательных параметров)", "text/plain", message);
+        attach("Проверка ошибки (нет обязательных параметров)", "text/plain", message);
     }
 
 
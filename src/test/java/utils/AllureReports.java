@@ -0,0 +1,81 @@
+package utils;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Label;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Отдельные результаты в Allure для данных уровня прогона (вне контекста сценария),
+ * например отчеты @AfterAll хуков или нагрузочных прогонов.
+ */
+public class AllureReports {
+
+    public static void addRunResult(String name, boolean passed, Map<String, String> textAttachments) {
+        addRunResult(name, passed, textAttachments, Map.of());
+    }
+
+    /**
+     * @param textAttachments имя вложения -> текст (text/plain)
+     * @param fileAttachments имя вложения -> путь к файлу (application/octet-stream)
+     */
+    public static void addRunResult(String name, boolean passed,
+                                    Map<String, String> textAttachments,
+                                    Map<String, Path> fileAttachments) {
+        write(new TestResult()
+                .setName(name)
+                .setFullName("run." + name)
+                .setHistoryId(name)
+                .setStatus(passed ? Status.PASSED : Status.FAILED), textAttachments, fileAttachments);
+    }
+
+    /**
+     * Результат сценария, пропущенного инкрементальным режимом: статус берется из кэша.
+     */
+    public static void addCachedScenarioResult(String scenarioId, String name, String details) {
+        write(new TestResult()
+                .setName(name)
+                .setFullName(scenarioId)
+                .setHistoryId(scenarioId)
+                .setStatus(Status.PASSED)
+                .setLabels(List.of(new Label().setName("tag").setValue("cached"))),
+                Map.of("Результат из кэша", details), Map.of());
+    }
+
+    private static void write(TestResult result, Map<String, String> textAttachments, Map<String, Path> fileAttachments) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        String uuid = UUID.randomUUID().toString();
+
+        lifecycle.scheduleTestCase(result.setUuid(uuid));
+        lifecycle.startTestCase(uuid);
+
+        try {
+            for (Map.Entry<String, String> attachment : textAttachments.entrySet()) {
+                lifecycle.addAttachment(attachment.getKey(), "text/plain", "txt",
+                        attachment.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+            for (Map.Entry<String, Path> attachment : fileAttachments.entrySet()) {
+                String fileName = attachment.getValue().getFileName().toString();
+                String extension = fileName.contains(".") ? fileName.substring(fileName.lastIndexOf('.') + 1) : "bin";
+                try (InputStream input = Files.newInputStream(attachment.getValue())) {
+                    lifecycle.addAttachment(attachment.getKey(), "application/octet-stream", extension, input);
+                } catch (IOException e) {
+                    System.err.println("Не удалось приложить файл " + attachment.getValue() + ": " + e.getMessage());
+                }
+            }
+        } finally {
+            lifecycle.stopTestCase(uuid);
+            lifecycle.writeTestCase(uuid);
+        }
+    }
+}
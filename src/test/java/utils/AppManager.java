@@ -0,0 +1,249 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальный запуск приложения под тестом из app.jar.
+ * Если app.jar не задан, приложение считается внешним и не управляется.
+ *
+ * Команда: java -Dsecret=<api.key> -Dmock=<адрес WireMock>/ [app.jvm.args] -jar app.jar [app.args]
+ */
+public class AppManager {
+    private static final int JCMD_TIMEOUT_SEC = 10;
+
+    private static Process process;
+
+    public static void start() {
+        start(true);
+    }
+
+    /**
+     * @param verifyLogin false — без контрольного LOGIN после старта (RecoveryProbe сам замеряет
+     *                    время до первого успешного LOGIN)
+     */
+    public static synchronized void start(boolean verifyLogin) {
+        String jar = ConfigReader.getAppJar();
+        if (jar == null || isRunning()) return;
+
+        Path log = Paths.get(ConfigReader.getAppLogFile());
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+        try {
+            log.toAbsolutePath().getParent().toFile().mkdirs();
+            List<String> command = new ArrayList<>(List.of(java));
+            if (ConfigReader.isJfrEnabled()) {
+                // Более глубокие стеки для сводки горячих методов; записи окон запускаются через jcmd
+                command.add("-XX:FlightRecorderOptions=stackdepth=128");
+            }
+            command.add("-Dsecret=" + ConfigReader.getApiKey());
+            command.add("-Dmock=" + WireMockManager.getMockUrl() + "/");
+            command.addAll(split(ConfigReader.getAppJvmArgs()));
+            command.addAll(List.of("-jar", jar));
+            command.addAll(split(ConfigReader.getAppArgs()));
+            process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(log.toFile()))
+                    .start();
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось запустить приложение " + jar, e);
+        }
+        System.out.println("Приложение запущено: " + jar + " (pid " + process.pid() + ", лог " + log + ")");
+
+        awaitReady(ConfigReader.getAppStartTimeoutMs());
+        if (verifyLogin) {
+            verifyLogin();
+        }
+    }
+
+    public static synchronized void stop() {
+        if (!isRunning()) return;
+
+        process.destroy();
+        try {
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Приложение остановлено");
+    }
+
+    /**
+     * Аварийное завершение (SIGKILL), как при падении узла
+     */
+    public static synchronized void kill() {
+        if (!isRunning()) return;
+
+        try {
+            process.destroyForcibly().waitFor(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("Приложение завершено принудительно");
+    }
+
+    public static synchronized boolean isRunning() {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * @return pid локально запущенного приложения или -1
+     */
+    public static synchronized long getPid() {
+        return isRunning() ? process.pid() : -1;
+    }
+
+    /**
+     * @return pid приложения под тестом: запущенного из app.jar или заданного app.pid, иначе -1
+     */
+    public static long targetPid() {
+        long pid = getPid();
+        return pid >= 0 ? pid : ConfigReader.getAppPid();
+    }
+
+    /**
+     * Резидентная память процесса (VmRSS из /proc, Linux)
+     *
+     * @return КБ или -1, если недоступно
+     */
+    public static long residentMemoryKb(long pid) {
+        if (pid < 0) return -1;
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // не Linux или процесс уже завершился
+        }
+        return -1;
+    }
+
+    /**
+     * Дамп потоков приложения через jcmd (приложение должно быть запущено локально).
+     */
+    public static String threadDump() {
+        long pid = getPid();
+        if (pid < 0) return null;
+
+        try {
+            return jcmd(pid, "Thread.print", "-l");
+        } catch (IOException e) {
+            return "Не удалось снять дамп потоков приложения: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Выполнение диагностической команды jcmd в процессе pid.
+     *
+     * @return вывод jcmd
+     */
+    public static String jcmd(long pid, String... command) throws IOException {
+        List<String> args = new ArrayList<>();
+        args.add(Paths.get(System.getProperty("java.home"), "bin", "jcmd").toString());
+        args.add(String.valueOf(pid));
+        args.addAll(List.of(command));
+
+        File out = File.createTempFile("jcmd", ".txt");
+        try {
+            Process jcmd = new ProcessBuilder(args)
+                    .redirectErrorStream(true)
+                    .redirectOutput(out)
+                    .start();
+            if (!jcmd.waitFor(JCMD_TIMEOUT_SEC, TimeUnit.SECONDS)) {
+                jcmd.destroyForcibly();
+                throw new IOException("jcmd не ответил за " + JCMD_TIMEOUT_SEC + " с");
+            }
+            String output = Files.readString(out.toPath());
+            if (jcmd.exitValue() != 0) {
+                throw new IOException("jcmd " + command[0] + " завершился с кодом " + jcmd.exitValue() + ": " + output.trim());
+            }
+            return output;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("jcmd прерван", e);
+        } finally {
+            out.delete();
+        }
+    }
+
+    /**
+     * Ожидание, пока приложение начнет отвечать на HTTP (любой статус).
+     */
+    private static void awaitReady(long timeoutMs) {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Приложение завершилось при старте, код " + process.exitValue());
+            }
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(ConfigReader.getBaseUrl()).openConnection();
+                connection.setConnectTimeout(500);
+                connection.setReadTimeout(500);
+                connection.getResponseCode();
+                connection.disconnect();
+                return;
+            } catch (IOException e) {
+                sleep(200);
+            }
+        }
+        throw new IllegalStateException("Приложение не ответило за " + timeoutMs + " мс");
+    }
+
+    /**
+     * Контрольный LOGIN: приложение отвечает, но без ключа API или адреса внешнего сервиса
+     * все сценарии падали бы с непонятными ошибками
+     */
+    private static void verifyLogin() {
+        String token = UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+        if (ConfigReader.isWireMockEnabled()) {
+            WireMockManager.setupMockAuthSuccess(token);
+        }
+
+        String failure;
+        try {
+            HttpResponse<String> response = new EndpointClient(ConfigReader.getBaseUrl()).post(
+                    Map.of("X-Api-Key", ConfigReader.getApiKey(), "Accept", "application/json"),
+                    Map.of("action", "LOGIN", "token", token));
+            if ("OK".equals(EndpointClient.result(response.body()))) return;
+            failure = "HTTP " + response.statusCode() + ": " + response.body();
+        } catch (IOException e) {
+            failure = e.toString();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e.toString();
+        }
+
+        stop();
+        throw new IllegalStateException("Приложение запущено, но контрольный LOGIN не прошел (" + failure
+                + "), проверьте -Dsecret/-Dmock в app.jvm.args, лог: " + ConfigReader.getAppLogFile());
+    }
+
+    private static List<String> split(String args) {
+        return args == null || args.isBlank() ? List.of() : List.of(args.trim().split("\\s+"));
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание старта приложения прервано", e);
+        }
+    }
+}
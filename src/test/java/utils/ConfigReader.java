@@ -1,6 +1,7 @@
 package utils;
 
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.Properties;
 
 public class ConfigReader {
@@ -23,12 +24,14 @@ public class ConfigReader {
         }
     }
 
+    // Системные свойства (-Dkey=value) имеют приоритет над config.properties
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        return System.getProperty(key, properties.getProperty(key));
     }
 
     public static String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
     }
 
     public static String getBaseUrl() {
@@ -47,7 +50,478 @@ public class ConfigReader {
         return Boolean.parseBoolean(getProperty("wiremock.enabled", "true"));
     }
 
+    public static boolean isWatchMode() {
+        return Boolean.parseBoolean(getProperty("watch.mode", "false"));
+    }
+
     public static int getTimeout() {
         return Integer.parseInt(getProperty("timeout.ms", "5000"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Бюджет времени на сценарий, после которого сторожевой таймер роняет сценарий
+     */
+    public static long getScenarioTimeoutMs() {
+        return Long.parseLong(getProperty("scenario.timeout.ms", "60000"));
+    }
+
+    /**
+     * Бюджет сценария с учетом тегов: scenario.timeout.ms.&lt;тег без @&gt;, из нескольких — наибольший.
+     * Для @restart по умолчанию 180000: старт приложения и ожидание восстановления (app.recovery.timeout.ms)
+     * не укладываются в общий бюджет. 0 в scenario.timeout.ms отключает контроль для всех сценариев.
+     */
+    public static long getScenarioTimeoutMs(Collection<String> tags) {
+        long budget = getScenarioTimeoutMs();
+        if (budget <= 0) return budget;
+        for (String tag : tags) {
+            String name = tag.startsWith("@") ? tag.substring(1) : tag;
+            String value = getProperty("scenario.timeout.ms." + name, "restart".equals(name) ? "180000" : null);
+            if (value != null) budget = Math.max(budget, Long.parseLong(value));
+        }
+        return budget;
+    }
+
+    // ===== token pool =====
+
+    public static boolean isTokenPoolEnabled() {
+        return Boolean.parseBoolean(getProperty("token.pool.enabled", "true"));
+    }
+
+    /**
+     * Сколько токенов логинится одной пачкой при пополнении пула
+     */
+    public static int getTokenPoolSize() {
+        return Integer.parseInt(getProperty("token.pool.size", "16"));
+    }
+
+    // ===== response schemas =====
+
+    /**
+     * Проверка каждого ответа /endpoint по JSON-схемам (ResponseSchemas)
+     */
+    public static boolean isSchemaValidationEnabled() {
+        return Boolean.parseBoolean(getProperty("schema.validation.enabled", "true"));
+    }
+
+    // ===== perf baseline =====
+
+    public static boolean isPerfGateEnabled() {
+        return Boolean.parseBoolean(getProperty("perf.gate.enabled", "true"));
+    }
+
+    /**
+     * Каталог истории вне target/, чтобы она переживала mvn clean; на CI каталог нужно сохранять между сборками
+     */
+    public static String getPerfHistoryDir() {
+        return getProperty("perf.history.dir", ".perf-history");
+    }
+
+    /**
+     * Принять текущий прогон как новый базовый уровень (осознанное замедление): гейт не срабатывает
+     */
+    public static boolean isPerfAccept() {
+        return Boolean.parseBoolean(getProperty("perf.accept", "false"));
+    }
+
+    public static int getPerfBaselineWindow() {
+        return Integer.parseInt(getProperty("perf.baseline.window", "5"));
+    }
+
+    public static int getPerfBaselineMinRuns() {
+        return Integer.parseInt(getProperty("perf.baseline.min.runs", "3"));
+    }
+
+    public static long getPerfMinSamples() {
+        return Long.parseLong(getProperty("perf.min.samples", "5"));
+    }
+
+    public static double getPerfMinDeltaMs() {
+        return Double.parseDouble(getProperty("perf.min.delta.ms", "5"));
+    }
+
+    /**
+     * Допустимое ухудшение метрики (0.20 = 20%).
+     * Порядок поиска: perf.tolerance.action.LOGIN.p95 -> perf.tolerance.p95 -> perf.tolerance
+     */
+    public static double getPerfTolerance(String metric) {
+        String value = getProperty("perf.tolerance." + metric);
+        if (value == null) {
+            String suffix = metric.substring(metric.lastIndexOf('.') + 1);
+            value = getProperty("perf.tolerance." + suffix, getProperty("perf.tolerance", "0.20"));
+        }
+        return Double.parseDouble(value);
+    }
+
+    // ===== sharding =====
+
+    public static int getShardCount() {
+        return Integer.parseInt(getProperty("shard.count", "1"));
+    }
+
+    public static int getShardIndex() {
+        return Integer.parseInt(getProperty("shard.index", "0"));
+    }
+
+    /**
+     * Суффикс файлов отчетов Cucumber этого форка: -Dfork.id, при шардировании — shard-N, иначе нет
+     */
+    public static String getForkId() {
+        String forkId = getProperty("fork.id");
+        if (forkId != null && !forkId.isBlank()) return forkId;
+        return getShardCount() > 1 ? "shard-" + getShardIndex() : null;
+    }
+
+    /**
+     * Форки, отчеты которых собирает ReportMerger: -Dfork.ids через запятую, иначе shard-0..shard-(shard.count-1)
+     */
+    public static String getForkIds() {
+        String forkIds = getProperty("fork.ids");
+        if (forkIds != null && !forkIds.isBlank()) return forkIds;
+        int count = getShardCount();
+        if (count <= 1) return null;
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) ids.append(',');
+            ids.append("shard-").append(i);
+        }
+        return ids.toString();
+    }
+
+    public static String getShardDurationsFile() {
+        return getProperty("shard.durations.file", "target/cucumber-reports/cucumber.json");
+    }
+
+    // ===== ndjson events =====
+
+    /**
+     * Емкость очереди событий NdjsonEventsPlugin: при заполнении потоки сценариев ждут писателя
+     */
+    public static int getNdjsonQueueSize() {
+        return Integer.parseInt(getProperty("ndjson.queue.size", "8192"));
+    }
+
+    // ===== incremental =====
+
+    public static boolean isIncrementalEnabled() {
+        return Boolean.parseBoolean(getProperty("incremental.enabled", "false"));
+    }
+
+    public static String getIncrementalCacheFile() {
+        return getProperty("incremental.cache.file", "target/scenario-cache/cache.properties");
+    }
+
+    /**
+     * Версия внешнего приложения под тестом для ключа кэша, когда app.jar не задан
+     */
+    public static String getAppVersion() {
+        return getProperty("app.version");
+    }
+
+    // ===== traffic record/replay =====
+
+    public static boolean isTrafficRecordEnabled() {
+        return Boolean.parseBoolean(getProperty("traffic.record", "false"));
+    }
+
+    /**
+     * Файл записи трафика (NDJSON, сжимается gzip, если имя оканчивается на .gz)
+     */
+    public static String getTrafficFile() {
+        return getProperty("traffic.file", "target/traffic/traffic.ndjson.gz");
+    }
+
+    /**
+     * Скорость воспроизведения: 1 — как в записи, N — в N раз быстрее, max — без пауз
+     */
+    public static String getReplaySpeed() {
+        return getProperty("replay.speed", "1");
+    }
+
+    public static int getReplayMaxInFlight() {
+        return Integer.parseInt(getProperty("replay.max.inflight", "64"));
+    }
+
+    // ===== token fuzzing =====
+
+    public static long getFuzzCases() {
+        return Long.parseLong(getProperty("fuzz.cases", "10000"));
+    }
+
+    public static long getFuzzSeed() {
+        return Long.parseLong(getProperty("fuzz.seed", "42"));
+    }
+
+    public static int getFuzzBatchSize() {
+        return Integer.parseInt(getProperty("fuzz.batch.size", "256"));
+    }
+
+    // ===== large payloads =====
+
+    public static int getLargeRequests() {
+        return Integer.parseInt(getProperty("large.requests", "120"));
+    }
+
+    public static int getLargeConcurrency() {
+        return Integer.parseInt(getProperty("large.concurrency", "8"));
+    }
+
+    /**
+     * Размер длинного токена и длинного действия, МБ
+     */
+    public static int getLargeSizeMb() {
+        return Integer.parseInt(getProperty("large.size.mb", "4"));
+    }
+
+    public static int getLargeRepeats() {
+        return Integer.parseInt(getProperty("large.repeats", "20000"));
+    }
+
+    /**
+     * Сколько раз повторить большой запрос в проверке памяти (после прогрева первым запросом)
+     */
+    public static int getLargeMemoryRequests() {
+        return Integer.parseInt(getProperty("large.memory.requests", "10"));
+    }
+
+    // ===== session model =====
+
+    public static int getModelRuns() {
+        return Integer.parseInt(getProperty("model.runs", "10"));
+    }
+
+    public static int getModelOps() {
+        return Integer.parseInt(getProperty("model.ops", "2000"));
+    }
+
+    public static int getModelTokens() {
+        return Integer.parseInt(getProperty("model.tokens", "50"));
+    }
+
+    public static int getModelParallelism() {
+        return Integer.parseInt(getProperty("model.parallelism", "16"));
+    }
+
+    /**
+     * Доля шагов, в которых к одному токену уходит группа одновременных запросов
+     */
+    public static double getModelConcurrentRatio() {
+        return Double.parseDouble(getProperty("model.concurrent.ratio", "0.1"));
+    }
+
+    public static long getModelSeed() {
+        return Long.parseLong(getProperty("model.seed", String.valueOf(System.nanoTime())));
+    }
+
+    public static int getModelShrinkAttempts() {
+        return Integer.parseInt(getProperty("model.shrink.attempts", "3"));
+    }
+
+    public static int getModelShrinkMaxRuns() {
+        return Integer.parseInt(getProperty("model.shrink.max.runs", "300"));
+    }
+
+    /**
+     * Путь к jar приложения под тестом, если он доступен локально
+     */
+    public static String getAppJar() {
+        return getProperty("app.jar");
+    }
+
+    /**
+     * Дополнительные аргументы JVM приложения через пробел; добавляются после -Dsecret и -Dmock
+     * и переопределяют их (-Dmock=http://auth:8080/)
+     */
+    public static String getAppJvmArgs() {
+        return getProperty("app.jvm.args", "");
+    }
+
+    /**
+     * Аргументы приложения после -jar через пробел
+     */
+    public static String getAppArgs() {
+        return getProperty("app.args", "");
+    }
+
+    public static String getAppLogFile() {
+        return getProperty("app.log.file", "target/app.log");
+    }
+
+    public static long getAppStartTimeoutMs() {
+        return Long.parseLong(getProperty("app.start.timeout.ms", "30000"));
+    }
+
+    /**
+     * pid уже запущенного приложения для подключения jcmd (если приложение не запускается из app.jar)
+     */
+    public static long getAppPid() {
+        return Long.parseLong(getProperty("app.pid", "-1"));
+    }
+
+    /**
+     * Предельное время восстановления после перезапуска приложения
+     */
+    public static long getAppRecoveryTimeoutMs() {
+        return Long.parseLong(getProperty("app.recovery.timeout.ms", "60000"));
+    }
+
+    /**
+     * Установившийся режим: медиана окна проб не выше медианы до перезапуска, умноженной на этот коэффициент
+     */
+    public static double getAppSteadyTolerance() {
+        return Double.parseDouble(getProperty("app.steady.tolerance", "1.5"));
+    }
+
+    public static boolean isAppRestartGraceful() {
+        return Boolean.parseBoolean(getProperty("app.restart.graceful", "true"));
+    }
+
+    public static int getRecoveryLoadThreads() {
+        return Integer.parseInt(getProperty("recovery.load.threads", "8"));
+    }
+
+    /**
+     * Сколько сессий открыть до перезапуска, чтобы проверить их судьбу после него
+     */
+    public static int getRecoveryTokens() {
+        return Integer.parseInt(getProperty("recovery.tokens", "50"));
+    }
+
+    public static long getRecoveryWarmupMs() {
+        return Long.parseLong(getProperty("recovery.warmup.ms", "5000"));
+    }
+
+    public static long getRecoveryAfterMs() {
+        return Long.parseLong(getProperty("recovery.after.ms", "10000"));
+    }
+
+    // ===== session scale =====
+
+    /**
+     * Наибольшее число одновременно живых сессий; уровни — степени session.scale.factor до него
+     */
+    public static int getSessionScaleMax() {
+        return Integer.parseInt(getProperty("session.scale.max", "100000"));
+    }
+
+    public static int getSessionScaleFactor() {
+        return Integer.parseInt(getProperty("session.scale.factor", "10"));
+    }
+
+    /**
+     * Замеров ACTION и LOGOUT на каждом уровне
+     */
+    public static int getSessionScaleSamples() {
+        return Integer.parseInt(getProperty("session.scale.samples", "200"));
+    }
+
+    public static int getSessionScaleParallelism() {
+        return Integer.parseInt(getProperty("session.scale.parallelism", "16"));
+    }
+
+    /**
+     * Допустимый рост медианы ACTION/LOGOUT относительно меньших уровней
+     */
+    public static double getSessionScaleTolerance() {
+        return Double.parseDouble(getProperty("session.scale.tolerance", "2.0"));
+    }
+
+    // ===== rejection flood =====
+
+    /**
+     * Виды отклоняемых запросов через запятую: WRONG_KEY, MISSING_PARAMS, UNKNOWN_ACTION
+     */
+    public static String getFloodClasses() {
+        return getProperty("flood.classes", "WRONG_KEY,MISSING_PARAMS,UNKNOWN_ACTION");
+    }
+
+    public static long getFloodDurationMs() {
+        return Long.parseLong(getProperty("flood.duration.ms", "10000"));
+    }
+
+    public static int getFloodConcurrency() {
+        return Integer.parseInt(getProperty("flood.concurrency", "64"));
+    }
+
+    /**
+     * Целевая частота отклоняемых запросов в секунду, 0 — без ограничения
+     */
+    public static int getFloodRate() {
+        return Integer.parseInt(getProperty("flood.rate", "0"));
+    }
+
+    public static int getFloodValidThreads() {
+        return Integer.parseInt(getProperty("flood.valid.threads", "2"));
+    }
+
+    public static long getFloodBaselineMs() {
+        return Long.parseLong(getProperty("flood.baseline.ms", "5000"));
+    }
+
+    /**
+     * Допустимый рост p50/p99 корректного трафика во время флуда относительно замера без флуда
+     */
+    public static double getFloodTolerance() {
+        return Double.parseDouble(getProperty("flood.tolerance", "2.0"));
+    }
+
+    // ===== harness profile =====
+
+    public static boolean isHarnessProfileEnabled() {
+        return Boolean.parseBoolean(getProperty("harness.profile.enabled", "true"));
+    }
+
+    // ===== datasets =====
+
+    /**
+     * Файл набора данных вместо указанного в сценарии того же формата (прогон выгрузки с прода тем же сценарием)
+     */
+    public static String getDatasetPath() {
+        return getProperty("dataset.path", "");
+    }
+
+    public static int getDatasetWorkers() {
+        return Integer.parseInt(getProperty("dataset.workers", "16"));
+    }
+
+    /**
+     * Строк в очереди каждого потока: ограничивает память и задерживает чтение файла
+     */
+    public static int getDatasetQueueSize() {
+        return Integer.parseInt(getProperty("dataset.queue.size", "1024"));
+    }
+
+    /**
+     * Размер окна отображения файла в память, МБ
+     */
+    public static int getDatasetMapMb() {
+        return Integer.parseInt(getProperty("dataset.map.mb", "64"));
+    }
+
+    /**
+     * Сколько строк прогнать, 0 — весь файл
+     */
+    public static long getDatasetLimit() {
+        return Long.parseLong(getProperty("dataset.limit", "0"));
+    }
+
+    public static int getDatasetMismatchSamples() {
+        return Integer.parseInt(getProperty("dataset.mismatch.samples", "20"));
+    }
+
+    // ===== JFR =====
+
+    public static boolean isJfrEnabled() {
+        return Boolean.parseBoolean(getProperty("jfr.enabled", "false"));
+    }
+
+    /**
+     * Настройки записи JFR: default или profile (подробнее, выше накладные расходы)
+     */
+    public static String getJfrSettings() {
+        return getProperty("jfr.settings", "profile");
+    }
+
+    public static String getJfrDir() {
+        return getProperty("jfr.dir", "target/jfr");
+    }
+}
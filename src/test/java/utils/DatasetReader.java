@@ -0,0 +1,255 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Ленивое чтение набора данных для /endpoint из CSV или NDJSON: файл отображается в память окнами
+ * по dataset.map.mb, строки разбираются по одной при обходе, в памяти держится только текущее окно.
+ *
+ * CSV (.csv) — первая строка заголовок с колонками token, action, expected и необязательной status,
+ * порядок колонок любой; пустое поле — параметр не передается, "" в кавычках — пустая строка.
+ * NDJSON (.ndjson, .jsonl) — объект на строку: {"token", "action", "expected", "status"},
+ * отсутствующее поле или null — параметр не передается.
+ * Пустые строки и строки CSV, начинающиеся с #, пропускаются.
+ */
+public class DatasetReader implements Iterator<DatasetReader.Row>, Closeable {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Строка набора: параметры запроса и ожидаемый результат (OK/ERROR), status — ожидаемый HTTP код или 0
+     */
+    public record Row(long line, String token, String action, String expected, int status) {
+    }
+
+    private enum Format {CSV, NDJSON}
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long size;
+    private final int window;
+    private final Format format;
+
+    private MappedByteBuffer buffer;
+    private long bufferStart;
+    private long position;
+    private long line;
+    private int[] columns;
+    private Row next;
+
+    private DatasetReader(Path path) throws IOException {
+        this.path = path;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.window = (int) Math.min(Integer.MAX_VALUE, Math.max(1, ConfigReader.getDatasetMapMb()) * 1024L * 1024L);
+
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            format = Format.CSV;
+        } else if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+            format = Format.NDJSON;
+        } else {
+            channel.close();
+            throw new IllegalArgumentException("Неизвестный формат набора данных (нужен .csv, .ndjson или .jsonl): " + path);
+        }
+    }
+
+    public static DatasetReader open(Path path) throws IOException {
+        DatasetReader reader = new DatasetReader(path);
+        try {
+            if (reader.format == Format.CSV) reader.readHeader();
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    public long bytesRead() {
+        return position;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String text = readLine();
+            if (text == null) return false;
+            if (text.isBlank() || (format == Format.CSV && text.startsWith("#"))) continue;
+            try {
+                next = format == Format.CSV ? csvRow(text) : jsonRow(text);
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalArgumentException(path + ":" + line + ": " + e.getMessage(), e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Row next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Row row = next;
+        next = null;
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header;
+        do {
+            header = readLine();
+            if (header == null) throw new IllegalArgumentException("В CSV нет заголовка: " + path);
+            if (header.startsWith("\uFEFF")) header = header.substring(1);
+        } while (header.isBlank() || header.startsWith("#"));
+
+        List<String> names = csvFields(header);
+        columns = new int[]{-1, -1, -1, -1};
+        String[] known = {"token", "action", "expected", "status"};
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i) == null ? "" : names.get(i).trim().toLowerCase(Locale.ROOT);
+            for (int k = 0; k < known.length; k++) {
+                if (known[k].equals(name)) columns[k] = i;
+            }
+        }
+        if (columns[0] < 0 || columns[1] < 0 || columns[2] < 0) {
+            throw new IllegalArgumentException("В заголовке CSV нужны колонки token, action, expected: " + header);
+        }
+    }
+
+    /**
+     * Следующая строка файла без перевода строки; окно перемещается на начало строки, не поместившейся целиком
+     */
+    private String readLine() {
+        if (position >= size) return null;
+        try {
+            while (true) {
+                if (buffer == null || position >= bufferStart + buffer.limit()) {
+                    map(position);
+                }
+                int from = (int) (position - bufferStart);
+                int end = indexOfNewline(from);
+                if (end >= 0) {
+                    String text = decode(from, end);
+                    position = bufferStart + end + 1;
+                    line++;
+                    return text;
+                }
+                if (bufferStart + buffer.limit() >= size) {
+                    // последняя строка без перевода строки
+                    String text = decode(from, buffer.limit());
+                    position = size;
+                    line++;
+                    return text;
+                }
+                if (from == 0) {
+                    throw new IllegalArgumentException(path + ":" + (line + 1) + ": строка длиннее окна dataset.map.mb");
+                }
+                map(position);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void map(long start) throws IOException {
+        bufferStart = start;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(window, size - start));
+    }
+
+    private int indexOfNewline(int from) {
+        for (int i = from, limit = buffer.limit(); i < limit; i++) {
+            if (buffer.get(i) == '\n') return i;
+        }
+        return -1;
+    }
+
+    private String decode(int from, int to) {
+        if (to > from && buffer.get(to - 1) == '\r') to--;
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private Row csvRow(String text) {
+        List<String> fields = csvFields(text);
+        String status = field(fields, columns[3]);
+        return new Row(line, field(fields, columns[0]), field(fields, columns[1]), field(fields, columns[2]),
+                status == null || status.isBlank() ? 0 : Integer.parseInt(status.trim()));
+    }
+
+    private Row jsonRow(String text) throws IOException {
+        JsonNode node = MAPPER.readTree(text);
+        if (node == null || !node.isObject()) throw new IllegalArgumentException("ожидался JSON-объект");
+        JsonNode status = node.get("status");
+        return new Row(line, text(node, "token"), text(node, "action"), text(node, "expected"),
+                status == null || status.isNull() ? 0 : status.asInt());
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < 0 || column >= fields.size() ? null : fields.get(column);
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = node.get(name);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * Поля строки CSV (RFC 4180 в пределах одной строки): пустое поле без кавычек — null
+     */
+    private static List<String> csvFields(String text) {
+        List<String> fields = new ArrayList<>(4);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("незакрытая кавычка");
+        fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,227 @@
+package utils;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Прогон набора данных против /endpoint: строки читаются лениво ({@link DatasetReader}) и раздаются
+ * dataset.workers потокам через ограниченные очереди, итоги копятся по мере прохождения строк,
+ * сами строки и ответы не сохраняются (кроме первых dataset.mismatch.samples расхождений).
+ *
+ * Строка попадает в поток по хэшу токена: LOGIN, ACTION и LOGOUT одного токена выполняются
+ * по порядку файла, разные токены — параллельно.
+ */
+public class DatasetReplay {
+    private static final DatasetReader.Row END = new DatasetReader.Row(-1, null, null, null, 0);
+    private static final long PROGRESS_ROWS = 100_000;
+
+    /**
+     * Итоги прогона, заполняются потоками по мере обработки строк
+     */
+    public static final class Result {
+        public final Path path;
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder mismatches = new LongAdder();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final ConcurrentLinkedQueue<String> samples = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger sampleSlots = new AtomicInteger(ConfigReader.getDatasetMismatchSamples());
+        private long elapsedNanos;
+
+        private Result(Path path) {
+            this.path = path;
+        }
+
+        public long rows() {
+            return rows.sum();
+        }
+
+        public long mismatches() {
+            return mismatches.sum();
+        }
+
+        private void record(DatasetReader.Row row, int status, String actual, long nanos) {
+            rows.increment();
+            latency.recordNanos(nanos);
+
+            boolean matched = row.expected() != null && row.expected().equals(actual)
+                    && (row.status() == 0 || row.status() == status);
+            String key = row.action() + " " + row.expected() + (row.status() == 0 ? "" : "/" + row.status())
+                    + " -> " + actual + "/" + status;
+            outcomes.computeIfAbsent(key, k -> new LongAdder()).increment();
+
+            if (!matched) {
+                mismatches.increment();
+                if (sampleSlots.getAndDecrement() > 0) {
+                    samples.add(String.format(Locale.ROOT, "строка %d: action=%s token=%s ожидалось %s%s, получено %s/%d",
+                            row.line(), row.action(), mask(row.token()), row.expected(),
+                            row.status() == 0 ? "" : "/" + row.status(), actual, status));
+                }
+            }
+        }
+
+        public String report() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("=== DATASET ===\n");
+            sb.append("Файл: ").append(path.toAbsolutePath()).append("\n");
+            double seconds = elapsedNanos / 1e9;
+            sb.append(String.format(Locale.ROOT, "Строк: %d, расхождений: %d, за %.1f с (%.0f строк/с), потоков: %d%n",
+                    rows(), mismatches(), seconds, seconds > 0 ? rows() / seconds : 0, ConfigReader.getDatasetWorkers()));
+            sb.append(String.format(Locale.ROOT, "Задержка, мс: p50 %.2f, p90 %.2f, p99 %.2f, max %.2f%n",
+                    latency.getPercentileMs(50), latency.getPercentileMs(90), latency.getPercentileMs(99), latency.getMaxMs()));
+
+            sb.append("\nИсходы (действие, ожидание -> результат/HTTP):\n");
+            Map<String, Long> sorted = new TreeMap<>();
+            outcomes.forEach((key, count) -> sorted.put(key, count.sum()));
+            sorted.forEach((key, count) -> sb.append(String.format(Locale.ROOT, "  %10d  %s%n", count, key)));
+
+            if (!samples.isEmpty()) {
+                sb.append("\nПервые расхождения:\n");
+                samples.forEach(s -> sb.append("  ").append(s).append("\n"));
+            }
+            return sb.toString();
+        }
+
+        public Map<String, String> summary() {
+            Map<String, String> summary = new LinkedHashMap<>();
+            summary.put("file", path.getFileName().toString());
+            summary.put("rows", String.valueOf(rows()));
+            summary.put("mismatches", String.valueOf(mismatches()));
+            summary.put("p99, ms", String.format(Locale.ROOT, "%.2f", latency.getPercentileMs(99)));
+            return summary;
+        }
+    }
+
+    public static Result run(Path path) throws IOException {
+        int workers = Math.max(1, ConfigReader.getDatasetWorkers());
+        long limit = ConfigReader.getDatasetLimit();
+        EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+        Map<String, String> headers = Map.of("X-Api-Key", ConfigReader.getApiKey(), "Accept", "application/json");
+        Result result = new Result(path);
+
+        List<BlockingQueue<DatasetReader.Row>> queues = new ArrayList<>(workers);
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            BlockingQueue<DatasetReader.Row> queue = new ArrayBlockingQueue<>(ConfigReader.getDatasetQueueSize());
+            Thread thread = new Thread(() -> work(queue, client, headers, result), "dataset-worker-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            queues.add(queue);
+            threads.add(thread);
+        }
+
+        long startedAt = System.nanoTime();
+        long read = 0;
+        // Запросы выполняют потоки dataset-worker-*, их таймеры не попадают в шаг; поток шага все это время
+        // ждет их в put и join, поэтому ожидание целиком считается ожиданием HTTP
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.HTTP)) {
+            try (DatasetReader reader = DatasetReader.open(path)) {
+                while ((limit <= 0 || read < limit) && reader.hasNext()) {
+                    ScenarioWatchdog.checkCurrent();
+                    DatasetReader.Row row = reader.next();
+                    String key = row.token() != null ? row.token() : String.valueOf(row.line());
+                    queues.get(Math.floorMod(key.hashCode(), workers)).put(row);
+                    if (++read % PROGRESS_ROWS == 0) {
+                        System.out.println(String.format(Locale.ROOT, "Набор данных %s: прочитано %d строк (%.0f%% файла), обработано %d",
+                                path.getFileName(), read, reader.bytesRead() * 100.0 / Math.max(1, reader.size()), result.rows()));
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Прогон набора данных прерван", e);
+            } catch (AssertionError e) {
+                // бюджет сценария исчерпан: строки в очередях не отправляются
+                queues.forEach(BlockingQueue::clear);
+                throw e;
+            } finally {
+                // потоки дорабатывают уже прочитанные строки и в том числе при ошибке разбора файла
+                for (BlockingQueue<DatasetReader.Row> queue : queues) {
+                    putUninterruptibly(queue, END);
+                }
+                for (Thread thread : threads) {
+                    joinUninterruptibly(thread);
+                }
+                result.elapsedNanos = System.nanoTime() - startedAt;
+            }
+        }
+        return result;
+    }
+
+    private static void work(BlockingQueue<DatasetReader.Row> queue, EndpointClient client,
+                             Map<String, String> headers, Result result) {
+        while (true) {
+            DatasetReader.Row row;
+            try {
+                row = queue.take();
+            } catch (InterruptedException e) {
+                // выход только по END: иначе чтение файла зависнет на заполненной очереди
+                continue;
+            }
+            if (row == END) return;
+
+            Map<String, String> form = new LinkedHashMap<>();
+            form.put("action", row.action());
+            form.put("token", row.token());
+
+            long startedAt = System.nanoTime();
+            int status;
+            String actual;
+            try {
+                HttpResponse<String> response = client.post(headers, form);
+                status = response.statusCode();
+                actual = EndpointClient.result(response.body());
+            } catch (IOException | RuntimeException e) {
+                status = -1;
+                actual = e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                status = -1;
+                actual = "InterruptedException";
+            }
+            result.record(row, status, actual, System.nanoTime() - startedAt);
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<DatasetReader.Row> queue, DatasetReader.Row row) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(row);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static String mask(String token) {
+        if (token == null) return "null";
+        return token.length() <= 8 ? token : token.substring(0, 4) + "..." + token.substring(token.length() - 4);
+    }
+}
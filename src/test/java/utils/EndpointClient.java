@@ -0,0 +1,117 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Легковесный клиент POST /endpoint на java.net.http для нагрузочных утилит,
+ * где накладные расходы RestAssured и Allure на запрос не нужны.
+ */
+public class EndpointClient {
+    // Заголовки, которые java.net.http выставляет сам и не дает переопределить
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final Duration timeout;
+
+    public EndpointClient(String baseUrl) {
+        this.timeout = Duration.ofMillis(ConfigReader.getTimeout());
+        this.endpoint = URI.create(baseUrl + "/endpoint");
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    public HttpResponse<String> post(Map<String, String> headers, Map<String, String> form) throws IOException, InterruptedException {
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.HTTP)) {
+            return client.send(request(headers, form), HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    public CompletableFuture<HttpResponse<String>> postAsync(Map<String, String> headers, Map<String, String> form) {
+        return client.sendAsync(request(headers, form), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Отправка большого тела потоком из генератора, без буферизации в памяти
+     */
+    public CompletableFuture<HttpResponse<String>> postStreamAsync(Map<String, String> headers, LargeFormBody body) {
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofInputStream(body::open), body.length());
+        return client.sendAsync(request(headers, publisher), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Тело application/x-www-form-urlencoded, параметры со значением null пропускаются
+     */
+    public static String formBody(Map<String, String> form) {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((name, value) -> {
+            if (value != null) {
+                body.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "=" + URLEncoder.encode(value, StandardCharsets.UTF_8));
+            }
+        });
+        return body.toString();
+    }
+
+    /**
+     * Поле result из JSON-ответа или null, если ответ не JSON
+     */
+    public static String result(String body) {
+        if (body == null || body.isEmpty()) return null;
+        try {
+            JsonNode result = MAPPER.readTree(body).get("result");
+            return result == null ? null : result.asText();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private HttpRequest request(Map<String, String> headers, Map<String, String> form) {
+        return request(headers, HttpRequest.BodyPublishers.ofString(formBody(form)));
+    }
+
+    private HttpRequest request(Map<String, String> headers, HttpRequest.BodyPublisher body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(endpoint)
+                .timeout(timeout)
+                .POST(body);
+
+        boolean contentType = false;
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            if (header.getValue() == null || RESTRICTED_HEADERS.contains(name)) continue;
+            builder.header(header.getKey(), headerValue(header.getValue()));
+            contentType |= name.equals("content-type");
+        }
+        if (!contentType) {
+            builder.header("Content-Type", "application/x-www-form-urlencoded");
+        }
+        return builder.build();
+    }
+
+    /**
+     * java.net.http принимает только символы до 0xFF: не-ASCII значения (негативные тесты
+     * с ключом "неправильный_ключ") уходят байтами UTF-8
+     */
+    private static String headerValue(String value) {
+        return new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,66 @@
+package utils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пути отчетов Cucumber (и записи трафика) с учетом форка: target/cucumber-reports/cucumber.json
+ * у форка shard-1 превращается в target/cucumber-reports/cucumber-shard-1.json,
+ * чтобы параллельные JVM не перезаписывали отчеты друг друга.
+ */
+public class ForkReports {
+
+    public static Path path(String base) {
+        return path(base, ConfigReader.getForkId());
+    }
+
+    public static Path path(String base, String forkId) {
+        Path path = Paths.get(base);
+        if (forkId == null) return path;
+
+        String name = path.getFileName().toString();
+        // traffic.ndjson.gz -> traffic-shard-1.ndjson.gz
+        int dot = name.endsWith(".gz") ? name.lastIndexOf('.', name.length() - 4) : name.lastIndexOf('.');
+        String forkName = dot < 0 ? name + "-" + forkId : name.substring(0, dot) + "-" + forkId + name.substring(dot);
+        return path.resolveSibling(forkName);
+    }
+
+    public static OutputStream open(String base) throws IOException {
+        Path path = path(base);
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+        return new BufferedOutputStream(Files.newOutputStream(path));
+    }
+
+    /**
+     * Отчеты форков текущего прогона рядом с общим отчетом (cucumber-shard-0.json, ... для cucumber.json).
+     * Список форков задается явно (см. {@link ConfigReader#getForkIds()}), а не по маске: файлы
+     * прошлых прогонов с другим числом шардов или другими fork.id в общий отчет не попадают.
+     * Отчет форка, которого нет на диске (форк упал до записи), пропускается с предупреждением.
+     */
+    public static List<Path> forkFiles(Path merged) {
+        String forkIds = ConfigReader.getForkIds();
+        if (forkIds == null) {
+            throw new IllegalArgumentException("Не заданы форки для сборки отчетов: укажите -Dshard.count или -Dfork.ids");
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (String forkId : forkIds.split(",")) {
+            if (forkId.isBlank()) continue;
+            Path file = path(merged.toString(), forkId.trim());
+            if (Files.isRegularFile(file)) {
+                files.add(file);
+            } else {
+                System.err.println("Нет отчета форка " + forkId.trim() + ": " + file);
+            }
+        }
+        return files;
+    }
+}
@@ -0,0 +1,239 @@
+package utils;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Разбор времени шагов на ожидание приложения и работу самих тестов: участки кода отмечаются
+ * таймерами категорий, plugins.HarnessProfilePlugin отделяет шаги и сценарии друг от друга.
+ * Время считается исключающим: вложенный таймер вычитается из внешнего. Все, что не покрыто
+ * таймерами (ассерты, сборка запросов RestAssured, вывод в консоль), попадает в "прочее".
+ *
+ * Отключение: -Dharness.profile.enabled=false
+ */
+public class HarnessProfile {
+
+    public enum Category {
+        HTTP("ожидание HTTP"),
+        WIREMOCK("заглушки WireMock"),
+        ALLURE("вложения Allure"),
+        JSON("JSON safeJson");
+
+        final String title;
+
+        Category(String title) {
+            this.title = title;
+        }
+    }
+
+    // Массив времени: категории, затем "прочее", длительность и число шагов
+    private static final int OTHER = Category.values().length;
+    private static final int DURATION = OTHER + 1;
+    private static final int COUNT = OTHER + 2;
+    private static final int SLOTS = OTHER + 3;
+    private static final boolean ENABLED = ConfigReader.isHarnessProfileEnabled();
+    private static final Timer NOOP = new Timer(null, null);
+
+    private static final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+    private static final Map<String, Totals> steps = new ConcurrentHashMap<>();
+    private static final List<ScenarioRow> scenarios = new ArrayList<>();
+
+    /**
+     * Таймер участка кода: закрывается в try-with-resources
+     */
+    public static final class Timer implements AutoCloseable {
+        private final Category category;
+        private final Timer parent;
+        private final long startedAt = System.nanoTime();
+        private long childNanos;
+
+        private Timer(Category category, Timer parent) {
+            this.category = category;
+            this.parent = parent;
+        }
+
+        @Override
+        public void close() {
+            if (category == null) return;
+            long elapsed = System.nanoTime() - startedAt;
+            ThreadState thread = state.get();
+            thread.step[category.ordinal()] += elapsed - childNanos;
+            if (parent != null) parent.childNanos += elapsed;
+            thread.top = parent;
+        }
+    }
+
+    private static final class ThreadState {
+        Timer top;
+        long[] step = new long[OTHER];
+    }
+
+    private static final class Totals {
+        final AtomicLongArray nanos = new AtomicLongArray(SLOTS);
+
+        void add(long[] breakdown) {
+            for (int i = 0; i < breakdown.length; i++) nanos.addAndGet(i, breakdown[i]);
+        }
+
+        long count() {
+            return nanos.get(COUNT);
+        }
+    }
+
+    private static final class ScenarioRow {
+        final String name;
+        final long[] breakdown;
+
+        ScenarioRow(String name, long[] breakdown) {
+            this.name = name;
+            this.breakdown = breakdown;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static Timer time(Category category) {
+        if (!ENABLED) return NOOP;
+        ThreadState thread = state.get();
+        thread.top = new Timer(category, thread.top);
+        return thread.top;
+    }
+
+    /**
+     * Фильтр RestAssured: время от отправки запроса до получения ответа
+     */
+    public static Filter restAssuredFilter() {
+        return HttpFilter.INSTANCE;
+    }
+
+    public static void stepStarted() {
+        if (!ENABLED) return;
+        ThreadState thread = state.get();
+        thread.step = new long[OTHER];
+    }
+
+    /**
+     * Завершение шага в текущем потоке
+     *
+     * @return время по категориям, "прочее", длительность шага и 1 (число шагов при суммировании)
+     */
+    public static long[] stepFinished(String step, long durationNanos) {
+        long[] breakdown = new long[SLOTS];
+        if (!ENABLED) return breakdown;
+
+        long[] measured = state.get().step;
+        long covered = 0;
+        for (int i = 0; i < OTHER; i++) {
+            breakdown[i] = measured[i];
+            covered += measured[i];
+        }
+        breakdown[OTHER] = Math.max(0, durationNanos - covered);
+        breakdown[DURATION] = durationNanos;
+        breakdown[COUNT] = 1;
+        steps.computeIfAbsent(step, k -> new Totals()).add(breakdown);
+        state.get().step = new long[OTHER];
+        return breakdown;
+    }
+
+    public static void scenarioFinished(String scenario, long[] breakdown) {
+        if (!ENABLED) return;
+        synchronized (scenarios) {
+            scenarios.add(new ScenarioRow(scenario, breakdown));
+        }
+    }
+
+    public static boolean isEmpty() {
+        return steps.isEmpty();
+    }
+
+    public static void reset() {
+        steps.clear();
+        synchronized (scenarios) {
+            scenarios.clear();
+        }
+    }
+
+    /**
+     * Отчет: итог прогона, шаги по суммарному времени, сценарии по доле работы тестов
+     */
+    public static String report() {
+        long[] total = new long[SLOTS];
+        steps.values().forEach(t -> {
+            for (int i = 0; i < total.length; i++) total[i] += t.nanos.get(i);
+        });
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== HARNESS PROFILE ===\n");
+        sb.append(String.format(Locale.ROOT, "Шагов: %d, суммарно %.1f мс, из них ожидание приложения (HTTP) %.1f мс, работа тестов %.1f мс (%.0f%%)%n",
+                total[COUNT], ms(total[DURATION]), ms(total[Category.HTTP.ordinal()]),
+                ms(total[DURATION] - total[Category.HTTP.ordinal()]),
+                share(total[DURATION] - total[Category.HTTP.ordinal()], total[DURATION])));
+        for (Category category : Category.values()) {
+            sb.append(String.format(Locale.ROOT, "  %-18s %10.1f мс %5.1f%%%n",
+                    category.title, ms(total[category.ordinal()]), share(total[category.ordinal()], total[DURATION])));
+        }
+        sb.append(String.format(Locale.ROOT, "  %-18s %10.1f мс %5.1f%%%n", "прочее", ms(total[OTHER]), share(total[OTHER], total[DURATION])));
+
+        sb.append("\nШаги (по суммарному времени), мс: всего / HTTP / WireMock / Allure / JSON / прочее, число вызовов\n");
+        steps.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Totals> e) -> e.getValue().nanos.get(DURATION)).reversed())
+                .forEach(e -> {
+                    AtomicLongArray n = e.getValue().nanos;
+                    long[] row = new long[SLOTS];
+                    for (int i = 0; i < row.length; i++) row[i] = n.get(i);
+                    sb.append(line(row)).append(" x").append(e.getValue().count()).append("  ").append(e.getKey()).append("\n");
+                });
+
+        sb.append("\nСценарии (по доле работы тестов), мс: всего / HTTP / WireMock / Allure / JSON / прочее\n");
+        List<ScenarioRow> rows;
+        synchronized (scenarios) {
+            rows = new ArrayList<>(scenarios);
+        }
+        rows.sort(Comparator.comparingDouble((ScenarioRow r) -> share(r.breakdown[DURATION] - r.breakdown[Category.HTTP.ordinal()],
+                r.breakdown[DURATION])).reversed());
+        for (ScenarioRow row : rows) {
+            sb.append(line(row.breakdown))
+                    .append(String.format(Locale.ROOT, " тесты %3.0f%%  ", share(row.breakdown[DURATION] - row.breakdown[Category.HTTP.ordinal()], row.breakdown[DURATION])))
+                    .append(row.name).append("\n");
+        }
+        return sb.toString();
+    }
+
+    private static String line(long[] breakdown) {
+        return String.format(Locale.ROOT, "%9.1f / %8.1f / %8.1f / %8.1f / %6.1f / %8.1f",
+                ms(breakdown[DURATION]), ms(breakdown[Category.HTTP.ordinal()]), ms(breakdown[Category.WIREMOCK.ordinal()]),
+                ms(breakdown[Category.ALLURE.ordinal()]), ms(breakdown[Category.JSON.ordinal()]), ms(breakdown[OTHER]));
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    private static double share(long part, long whole) {
+        return whole <= 0 ? 0 : part * 100.0 / whole;
+    }
+
+    private static final class HttpFilter implements Filter {
+        static final HttpFilter INSTANCE = new HttpFilter();
+
+        @Override
+        public Response filter(FilterableRequestSpecification request, FilterableResponseSpecification response, FilterContext ctx) {
+            try (Timer ignored = time(Category.HTTP)) {
+                return ctx.next(request, response);
+            }
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package utils;
 
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 
@@ -9,6 +11,18 @@ import static io.restassured.RestAssured.given;
 
 public class HttpUtils {
 
+    /**
+     * Таймауты соединения, чтения и ожидания соединения из пула (timeout.ms),
+     * чтобы зависшее приложение или мок не блокировали шаг бесконечно
+     */
+    public static RestAssuredConfig configWithTimeouts() {
+        int timeout = ConfigReader.getTimeout();
+        return RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .setParam("http.connection.timeout", timeout)
+                .setParam("http.socket.timeout", timeout)
+                .setParam("http.connection-manager.timeout", (long) timeout));
+    }
+
     public static Response sendPostRequest(String url, Map<String, String> formParams, Map<String, String> headers) {
         RequestSpecification request = given()
                 .contentType("application/x-www-form-urlencoded")
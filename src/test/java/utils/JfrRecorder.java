@@ -0,0 +1,106 @@
+package utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+
+/**
+ * Запись Java Flight Recorder в приложении под тестом (-Djfr.enabled=true) отдельно
+ * для каждой фичи или нагрузочного прогона.
+ *
+ * Приложение — запущенное из app.jar (AppManager) или внешнее с -Dapp.pid. Запись окна
+ * начинается и останавливается через jcmd JFR.start/JFR.stop, файл .jfr сохраняется в jfr.dir,
+ * сводка (горячие методы, аллокации, GC, блокировки) и сам файл прикладываются к Allure.
+ */
+public class JfrRecorder {
+    private static URI currentFeature;
+    private static Window featureWindow;
+
+    /**
+     * Запись одного окна
+     */
+    public static final class Window {
+        private final String name;
+        private final String recording;
+        private final long pid;
+        private final long startedAt = System.nanoTime();
+
+        private Window(String name, String recording, long pid) {
+            this.name = name;
+            this.recording = recording;
+            this.pid = pid;
+        }
+    }
+
+    /**
+     * @return окно записи или null, если JFR выключен или приложение недоступно
+     */
+    public static Window begin(String name) {
+        if (!ConfigReader.isJfrEnabled()) return null;
+
+        long pid = AppManager.targetPid();
+        if (pid < 0) {
+            System.err.println("JFR: приложение не запущено из app.jar и не задан app.pid, запись не ведется");
+            return null;
+        }
+
+        String recording = "harness-" + name.trim().replaceAll("[^A-Za-z0-9._-]", "_");
+        try {
+            AppManager.jcmd(pid, "JFR.start", "name=" + recording, "settings=" + ConfigReader.getJfrSettings());
+        } catch (IOException e) {
+            System.err.println("JFR: не удалось начать запись " + name + ": " + e.getMessage());
+            return null;
+        }
+        return new Window(name, recording, pid);
+    }
+
+    /**
+     * Остановка записи окна, сводка в консоль и Allure. Допускает null (запись не велась).
+     */
+    public static void end(Window window) {
+        if (window == null) return;
+
+        double elapsedSec = (System.nanoTime() - window.startedAt) / 1e9;
+        Path file = Paths.get(ConfigReader.getJfrDir(), window.recording + ".jfr").toAbsolutePath();
+        try {
+            Files.createDirectories(file.getParent());
+            AppManager.jcmd(window.pid, "JFR.stop", "name=" + window.recording, "filename=" + file);
+
+            String summary = JfrSummary.summarize(file, window.name, elapsedSec);
+            System.out.println(summary);
+            AllureReports.addRunResult("JFR " + window.name, true,
+                    Map.of("Сводка JFR", summary), Map.of("Запись JFR", file));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("JFR: не удалось сохранить запись " + window.name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Сценарии выполняются последовательно: смена фичи закрывает окно предыдущей и открывает новое.
+     */
+    public static synchronized void enterFeature(URI feature) {
+        if (!ConfigReader.isJfrEnabled() || feature.equals(currentFeature)) return;
+
+        end(featureWindow);
+        currentFeature = feature;
+        featureWindow = begin(featureName(feature));
+    }
+
+    /**
+     * Закрытие окна последней фичи (до остановки приложения)
+     */
+    public static synchronized void finishFeature() {
+        end(featureWindow);
+        featureWindow = null;
+        currentFeature = null;
+    }
+
+    private static String featureName(URI feature) {
+        String path = feature.getSchemeSpecificPart();
+        String file = path.substring(path.lastIndexOf('/') + 1);
+        return file.endsWith(".feature") ? file.substring(0, file.length() - ".feature".length()) : file;
+    }
+}
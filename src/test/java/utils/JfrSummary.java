@@ -0,0 +1,141 @@
+package utils;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Короткая сводка записи JFR: горячие методы (по сэмплам выполнения), скорость аллокаций,
+ * паузы GC и конкуренция за блокировки. Файл читается потоково, события в памяти не копятся.
+ */
+public class JfrSummary {
+    private static final int TOP_METHODS = 10;
+    private static final int TOP_ENTRIES = 5;
+    private static final double MB = 1024.0 * 1024.0;
+
+    private static final class Contention {
+        long count;
+        long nanos;
+    }
+
+    public static String summarize(Path file, String window, double elapsedSec) throws IOException {
+        Map<String, Long> hotMethods = new HashMap<>();
+        long samples = 0;
+        Map<String, Long> allocations = new HashMap<>();
+        long allocatedBytes = 0;
+        long gcCount = 0;
+        Duration gcPauses = Duration.ZERO;
+        Duration gcLongest = Duration.ZERO;
+        Map<String, Contention> locks = new HashMap<>();
+
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample": {
+                        RecordedStackTrace stack = event.getStackTrace();
+                        if (stack != null && !stack.getFrames().isEmpty()) {
+                            samples++;
+                            hotMethods.merge(method(stack.getFrames().get(0)), 1L, Long::sum);
+                        }
+                        break;
+                    }
+                    case "jdk.ObjectAllocationSample": {
+                        long weight = event.getLong("weight");
+                        allocatedBytes += weight;
+                        allocations.merge(className(event.getClass("objectClass")), weight, Long::sum);
+                        break;
+                    }
+                    case "jdk.GarbageCollection": {
+                        gcCount++;
+                        gcPauses = gcPauses.plus(event.getDuration("sumOfPauses"));
+                        Duration longest = event.getDuration("longestPause");
+                        if (longest.compareTo(gcLongest) > 0) gcLongest = longest;
+                        break;
+                    }
+                    case "jdk.JavaMonitorEnter":
+                        contention(locks, "synchronized " + className(event.getClass("monitorClass")), event.getDuration());
+                        break;
+                    case "jdk.ThreadPark": {
+                        // Только ожидание захвата j.u.c блокировок; простаивающие пулы (ConditionObject и т.п.) не считаются
+                        String parked = className(event.getClass("parkedClass"));
+                        if (parked.contains("Lock") && !parked.endsWith("ConditionObject")) {
+                            contention(locks, "park " + parked, event.getDuration());
+                        }
+                        break;
+                    }
+                    default:
+                        break;
+                }
+            }
+        }
+
+        double seconds = Math.max(1e-3, elapsedSec);
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "=== JFR: %s (%.1f с) ===%n", window, elapsedSec));
+
+        sb.append("Горячие методы (").append(samples).append(" сэмплов):\n");
+        if (samples == 0) sb.append("  нет сэмплов\n");
+        for (Map.Entry<String, Long> entry : top(hotMethods, TOP_METHODS)) {
+            sb.append(String.format(Locale.ROOT, "  %5.1f%%  %s%n", 100.0 * entry.getValue() / samples, entry.getKey()));
+        }
+
+        sb.append(String.format(Locale.ROOT, "Аллокации (оценка по сэмплам): %.1f МБ/с, всего %.1f МБ%n",
+                allocatedBytes / MB / seconds, allocatedBytes / MB));
+        for (Map.Entry<String, Long> entry : top(allocations, TOP_ENTRIES)) {
+            sb.append(String.format(Locale.ROOT, "  %8.1f МБ  %s%n", entry.getValue() / MB, entry.getKey()));
+        }
+
+        sb.append(String.format(Locale.ROOT, "GC: %d сборок, паузы всего %.1f мс, максимум %.1f мс%n",
+                gcCount, gcPauses.toNanos() / 1e6, gcLongest.toNanos() / 1e6));
+
+        long lockCount = locks.values().stream().mapToLong(c -> c.count).sum();
+        long lockNanos = locks.values().stream().mapToLong(c -> c.nanos).sum();
+        sb.append(String.format(Locale.ROOT, "Конкуренция за блокировки (выше порога настроек %s): %d ожиданий, всего %.1f мс%n",
+                ConfigReader.getJfrSettings(), lockCount, lockNanos / 1e6));
+        locks.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Contention> e) -> e.getValue().nanos).reversed())
+                .limit(TOP_ENTRIES)
+                .forEach(e -> sb.append(String.format(Locale.ROOT, "  %8.1f мс  %5d  %s%n",
+                        e.getValue().nanos / 1e6, e.getValue().count, e.getKey())));
+
+        sb.append("Файл: ").append(file).append("\n");
+        return sb.toString();
+    }
+
+    private static void contention(Map<String, Contention> locks, String key, Duration duration) {
+        Contention contention = locks.computeIfAbsent(key, k -> new Contention());
+        contention.count++;
+        contention.nanos += duration.toNanos();
+    }
+
+    private static List<Map.Entry<String, Long>> top(Map<String, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static String method(RecordedFrame frame) {
+        RecordedMethod method = frame.getMethod();
+        if (method == null) return "<unknown>";
+        return className(method.getType()) + "." + method.getName();
+    }
+
+    private static String className(RecordedClass type) {
+        return type != null ? type.getName() : "<unknown>";
+    }
+}
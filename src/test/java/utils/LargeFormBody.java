@@ -0,0 +1,127 @@
+package utils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Большое тело application/x-www-form-urlencoded, которое генерируется при чтении:
+ * префикс, фрагмент, повторенный repeats раз, и суффикс. В памяти держатся только
+ * эти три фрагмента, размер тела известен заранее (Content-Length).
+ */
+public class LargeFormBody {
+    private static final String HEX_BLOCK = "0123456789ABCDEF".repeat(64);
+    private static final String LETTER_BLOCK = "X".repeat(1024);
+
+    private final String description;
+    private final byte[] prefix;
+    private final byte[] unit;
+    private final long repeats;
+    private final byte[] suffix;
+
+    private LargeFormBody(String description, String prefix, String unit, long repeats, String suffix) {
+        this.description = description;
+        this.prefix = prefix.getBytes(StandardCharsets.US_ASCII);
+        this.unit = unit.getBytes(StandardCharsets.US_ASCII);
+        this.repeats = repeats;
+        this.suffix = suffix.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * LOGIN с hex-токеном длиной около bytes (кратно 1 КБ)
+     */
+    public static LargeFormBody longToken(long bytes) {
+        long blocks = Math.max(1, bytes / HEX_BLOCK.length());
+        return new LargeFormBody("LOGIN, токен " + blocks + " КБ",
+                "action=LOGIN&token=", HEX_BLOCK, blocks, "");
+    }
+
+    /**
+     * LOGIN с корректным токеном и count повторами параметра token=value
+     */
+    public static LargeFormBody repeatedToken(String token, long count) {
+        return new LargeFormBody("LOGIN, " + count + " повторов параметра token",
+                "action=LOGIN&token=" + token, "&token=" + token, count, "");
+    }
+
+    /**
+     * Корректный токен и действие длиной около bytes (кратно 1 КБ)
+     */
+    public static LargeFormBody longAction(String token, long bytes) {
+        long blocks = Math.max(1, bytes / LETTER_BLOCK.length());
+        return new LargeFormBody("действие " + blocks + " КБ",
+                "token=" + token + "&action=", LETTER_BLOCK, blocks, "");
+    }
+
+    public long length() {
+        return prefix.length + unit.length * repeats + suffix.length;
+    }
+
+    public String description() {
+        return description;
+    }
+
+    /**
+     * Новый поток с началом тела; каждый вызов генерирует тело заново
+     */
+    public InputStream open() {
+        return new InputStream() {
+            private final long total = length();
+            private long position;
+
+            @Override
+            public int read() {
+                if (position >= total) return -1;
+                return byteAt(position++) & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                if (length == 0) return 0;
+                if (position >= total) return -1;
+
+                int count = (int) Math.min(length, total - position);
+                int written = 0;
+                while (written < count) {
+                    written += copySegment(position + written, buffer, offset + written, count - written);
+                }
+                position += count;
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return (int) Math.min(Integer.MAX_VALUE, total - position);
+            }
+        };
+    }
+
+    private byte byteAt(long position) {
+        if (position < prefix.length) return prefix[(int) position];
+        long inRepeats = position - prefix.length;
+        if (inRepeats < unit.length * repeats) return unit[(int) (inRepeats % unit.length)];
+        return suffix[(int) (inRepeats - unit.length * repeats)];
+    }
+
+    /**
+     * Копирует непрерывный кусок одного фрагмента, начиная с position
+     *
+     * @return число скопированных байт
+     */
+    private int copySegment(long position, byte[] buffer, int offset, int max) {
+        byte[] source;
+        int from;
+        if (position < prefix.length) {
+            source = prefix;
+            from = (int) position;
+        } else if (position - prefix.length < unit.length * repeats) {
+            source = unit;
+            from = (int) ((position - prefix.length) % unit.length);
+        } else {
+            source = suffix;
+            from = (int) (position - prefix.length - unit.length * repeats);
+        }
+        int count = Math.min(max, source.length - from);
+        System.arraycopy(source, from, buffer, offset, count);
+        return count;
+    }
+}
@@ -0,0 +1,248 @@
+package utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * История метрик производительности по прогонам (append-only NDJSON, одна строка на прогон)
+ * и сравнение текущего прогона со скользящим базовым уровнем (медиана последних N прогонов).
+ * Прогоны с регрессией в базовый уровень не входят; принятое замедление (-Dperf.accept=true)
+ * записывается как начало нового базового уровня, прогоны до него больше не учитываются.
+ *
+ * История ведется отдельно для каждого набора сценариев: полный прогон пишет в perf-history.ndjson,
+ * прогоны с фильтром тегов, путей фич или шардированием — в perf-history-&lt;хэш набора&gt;.ndjson.
+ * Инкрементальные прогоны (набор зависит от кэша) в историю не пишутся и гейтом не проверяются.
+ */
+public class PerfBaseline {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String HISTORY_PREFIX = "perf-history";
+    private static final String DIFF_FILE = "perf-diff.txt";
+
+    public static class Regression {
+        public final String metric;
+        public final double baseline;
+        public final double current;
+        public final double tolerance;
+
+        Regression(String metric, double baseline, double current, double tolerance) {
+            this.metric = metric;
+            this.baseline = baseline;
+            this.current = current;
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        public String toString() {
+            double change = baseline == 0 ? 0 : (current - baseline) / baseline * 100;
+            return String.format(Locale.ROOT, "%-60s baseline=%10.2f current=%10.2f change=%+7.1f%% (допуск %.0f%%)",
+                    metric, baseline, current, change, tolerance * 100);
+        }
+    }
+
+    /**
+     * Сравнивает метрики с базовым уровнем, дописывает прогон в историю и,
+     * при регрессии, прикладывает diff-отчет к Allure и роняет сборку.
+     */
+    public static void checkAndRecord(Map<String, Double> metrics) {
+        if (metrics.isEmpty()) return;
+        if (ConfigReader.isIncrementalEnabled()) {
+            System.out.println("=== PERF BASELINE === инкрементальный прогон: набор сценариев зависит от кэша, в историю не пишется");
+            return;
+        }
+
+        Path dir = Paths.get(ConfigReader.getPerfHistoryDir());
+        String selection = runSelection();
+        Path historyFile = dir.resolve(selection == null
+                ? HISTORY_PREFIX + ".ndjson"
+                : HISTORY_PREFIX + "-" + sha256(selection).substring(0, 12) + ".ndjson");
+        List<Map<String, Double>> history = readBaselineRuns(historyFile, ConfigReader.getPerfBaselineWindow());
+
+        List<Regression> regressions = history.size() >= ConfigReader.getPerfBaselineMinRuns()
+                ? compare(median(history), metrics)
+                : List.of();
+
+        boolean accepted = ConfigReader.isPerfAccept();
+        appendRun(historyFile, selection, metrics, !accepted && !regressions.isEmpty(), accepted);
+
+        String report = formatReport(historyFile, selection, history.size(), metrics, regressions, accepted);
+        writeString(dir.resolve(DIFF_FILE), report);
+        System.out.println(report);
+
+        if (!regressions.isEmpty() && !accepted) {
+            AllureReports.addRunResult("Регрессия производительности", false, Map.of("perf-diff", report));
+            if (ConfigReader.isPerfGateEnabled()) {
+                throw new AssertionError("Обнаружена регрессия производительности: " + regressions.size()
+                        + " метрик(и) хуже базового уровня, см. " + dir.resolve(DIFF_FILE));
+            }
+        }
+    }
+
+    /**
+     * Описание набора сценариев прогона или null для полного прогона
+     */
+    static String runSelection() {
+        List<String> parts = new ArrayList<>();
+        for (String property : List.of("cucumber.filter.tags", "cucumber.filter.name", "cucumber.features")) {
+            String value = ConfigReader.getProperty(property);
+            if (value != null && !value.isBlank()) parts.add(property + "=" + value.trim());
+        }
+        if (ConfigReader.getShardCount() > 1) {
+            parts.add("shard=" + ConfigReader.getShardIndex() + "/" + ConfigReader.getShardCount());
+        }
+        return parts.isEmpty() ? null : String.join("; ", parts);
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<Regression> compare(Map<String, Double> baseline, Map<String, Double> current) {
+        List<Regression> regressions = new ArrayList<>();
+        long minSamples = ConfigReader.getPerfMinSamples();
+        double minDeltaMs = ConfigReader.getPerfMinDeltaMs();
+
+        for (Map.Entry<String, Double> entry : current.entrySet()) {
+            String metric = entry.getKey();
+            if (metric.endsWith(".count")) continue;
+
+            Double base = baseline.get(metric);
+            if (base == null || base <= 0) continue;
+
+            String key = metric.substring(0, metric.lastIndexOf('.'));
+            if (current.getOrDefault(key + ".count", 0.0) < minSamples) continue;
+
+            double value = entry.getValue();
+            double tolerance = ConfigReader.getPerfTolerance(metric);
+
+            boolean regressed = metric.endsWith(".rps")
+                    ? value < base * (1 - tolerance)
+                    : value > base * (1 + tolerance) && value - base >= minDeltaMs;
+
+            if (regressed) {
+                regressions.add(new Regression(metric, base, value, tolerance));
+            }
+        }
+        return regressions;
+    }
+
+    private static Map<String, Double> median(List<Map<String, Double>> runs) {
+        Map<String, List<Double>> values = new LinkedHashMap<>();
+        for (Map<String, Double> run : runs) {
+            run.forEach((metric, value) -> values.computeIfAbsent(metric, k -> new ArrayList<>()).add(value));
+        }
+
+        Map<String, Double> result = new LinkedHashMap<>();
+        values.forEach((metric, list) -> {
+            list.sort(Double::compareTo);
+            int mid = list.size() / 2;
+            result.put(metric, list.size() % 2 == 1 ? list.get(mid) : (list.get(mid - 1) + list.get(mid)) / 2);
+        });
+        return result;
+    }
+
+    /**
+     * Читает историю построчно, удерживая в памяти только последние window прогонов без регрессий,
+     * начиная с последнего принятого прогона.
+     */
+    private static List<Map<String, Double>> readBaselineRuns(Path file, int window) {
+        Deque<Map<String, Double>> runs = new ArrayDeque<>();
+        if (!Files.exists(file)) return new ArrayList<>(runs);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    Map<String, Object> run = MAPPER.readValue(line, new TypeReference<>() {});
+                    if (Boolean.TRUE.equals(run.get("regressed"))) continue;
+                    if (Boolean.TRUE.equals(run.get("accepted"))) runs.clear();
+
+                    Map<String, Double> metrics = MAPPER.convertValue(run.get("metrics"), new TypeReference<>() {});
+                    runs.addLast(metrics);
+                    if (runs.size() > window) runs.removeFirst();
+                } catch (IOException | IllegalArgumentException e) {
+                    System.err.println("Пропущена поврежденная строка истории perf: " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ArrayList<>(runs);
+    }
+
+    private static void appendRun(Path file, String selection, Map<String, Double> metrics, boolean regressed, boolean accepted) {
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("ts", Instant.now().toString());
+        if (selection != null) run.put("selection", selection);
+        run.put("regressed", regressed);
+        if (accepted) run.put("accepted", true);
+        run.put("metrics", metrics);
+
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(MAPPER.writeValueAsString(run));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String formatReport(Path historyFile, String selection, int baselineRuns, Map<String, Double> metrics,
+                                       List<Regression> regressions, boolean accepted) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== PERF BASELINE ===\n");
+        sb.append("История: ").append(historyFile)
+                .append(selection == null ? " (полный прогон)" : " (" + selection + ")").append("\n");
+        sb.append("Прогонов в базовом уровне: ").append(baselineRuns)
+                .append(" (минимум ").append(ConfigReader.getPerfBaselineMinRuns()).append(")\n");
+        sb.append("Метрик в прогоне: ").append(metrics.size()).append("\n");
+
+        if (regressions.isEmpty()) {
+            sb.append("Регрессий не обнаружено\n");
+        } else {
+            sb.append("Регрессии:\n");
+            regressions.forEach(r -> sb.append("  ").append(r).append("\n"));
+        }
+        if (accepted) {
+            sb.append("Прогон принят как новый базовый уровень (perf.accept), прежние прогоны не учитываются\n");
+        }
+        return sb.toString();
+    }
+
+    private static void writeString(Path file, String content) {
+        try {
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
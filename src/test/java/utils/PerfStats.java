@@ -0,0 +1,75 @@
+package utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сбор задержек шагов и действий за прогон.
+ * Ключи метрик: step.&lt;шаблон шага&gt; и action.&lt;LOGIN|ACTION|LOGOUT|...&gt;
+ */
+public class PerfStats {
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, BusyTime> busy = new ConcurrentHashMap<>();
+
+    /**
+     * Время, когда шел хотя бы один запрос действия: объединение интервалов [конец - длительность, конец].
+     * Интервалы приходят в порядке завершения, поэтому достаточно помнить конец последнего.
+     */
+    private static final class BusyTime {
+        private long busyUntil = Long.MIN_VALUE;
+        private long nanos;
+
+        synchronized void add(long endedAt, long duration) {
+            long start = Math.max(endedAt - duration, busyUntil);
+            if (endedAt > start) nanos += endedAt - start;
+            busyUntil = Math.max(busyUntil, endedAt);
+        }
+
+        synchronized long nanos() {
+            return nanos;
+        }
+    }
+
+    public static void recordStep(String pattern, long nanos) {
+        record("step." + pattern, nanos);
+    }
+
+    public static void recordAction(String action, long nanos) {
+        String key = "action." + (action != null ? action : "NONE");
+        record(key, nanos);
+        busy.computeIfAbsent(key, k -> new BusyTime()).add(System.nanoTime(), nanos);
+    }
+
+    public static void record(String key, long nanos) {
+        histograms.computeIfAbsent(key, k -> new LatencyHistogram()).recordNanos(nanos);
+    }
+
+    public static Map<String, LatencyHistogram> getHistograms() {
+        return histograms;
+    }
+
+    /**
+     * Плоский снимок метрик прогона: &lt;ключ&gt;.p50/.p95/.p99/.count (мс, шт.)
+     * и &lt;ключ&gt;.rps для действий — запросов в секунду за время, когда запросы действия
+     * действительно выполнялись (ожидания восстановления, Allure и WireMock в него не входят).
+     */
+    public static Map<String, Double> snapshot() {
+        Map<String, Double> metrics = new TreeMap<>();
+
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            String key = entry.getKey();
+            LatencyHistogram h = entry.getValue();
+
+            metrics.put(key + ".count", (double) h.getCount());
+            metrics.put(key + ".p50", h.getPercentileMs(50));
+            metrics.put(key + ".p95", h.getPercentileMs(95));
+            metrics.put(key + ".p99", h.getPercentileMs(99));
+            BusyTime busyTime = busy.get(key);
+            if (busyTime != null) {
+                metrics.put(key + ".rps", h.getCount() / Math.max(1e-3, busyTime.nanos() / 1e9));
+            }
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,158 @@
+package utils;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Перезапуск приложения из app.jar с замером восстановления: последовательные пробы LOGIN
+ * с новыми токенами до перезапуска (базовая задержка) и после него — время до первого
+ * успешного ответа и до установившейся задержки (медиана окна из STEADY_WINDOW проб
+ * не выше базовой, умноженной на app.steady.tolerance).
+ *
+ * Заглушки внешнего сервиса должны отвечать успешно на любые токены
+ * (WireMockManager.setupMockCatchAllSuccess).
+ */
+public class RecoveryProbe {
+    private static final int BASELINE_PROBES = 20;
+    private static final int STEADY_WINDOW = 20;
+    private static final long RETRY_PAUSE_MS = 20;
+    // Абсолютный допуск для очень быстрых ответов, где коэффициент меньше шума
+    private static final double STEADY_SLACK_MS = 2.0;
+
+    public static final class Result {
+        public final boolean graceful;
+        public final double baselineP50Ms;
+        // System.nanoTime() команды остановки, от него отсчитываются остальные времена
+        public long stoppedAtNanos;
+        public double stopMs;
+        public double listeningMs;
+        public double firstSuccessMs = -1;
+        public double steadyMs = -1;
+        public double steadyP50Ms = -1;
+        public long failedProbes;
+
+        Result(boolean graceful, double baselineP50Ms) {
+            this.graceful = graceful;
+            this.baselineP50Ms = baselineP50Ms;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "Перезапуск: %s%n" +
+                            "Остановка: %.0f мс, порт снова слушает: %.0f мс%n" +
+                            "Первый успешный LOGIN: %s%n" +
+                            "Установившаяся задержка: %s (медиана окна %.1f мс, до перезапуска %.1f мс)%n" +
+                            "Неуспешных проб после перезапуска: %d",
+                    graceful ? "штатная остановка" : "kill",
+                    stopMs, listeningMs,
+                    firstSuccessMs < 0 ? "не получен" : String.format(Locale.ROOT, "%.0f мс", firstSuccessMs),
+                    steadyMs < 0 ? "не достигнута" : String.format(Locale.ROOT, "%.0f мс", steadyMs),
+                    steadyP50Ms, baselineP50Ms, failedProbes);
+        }
+    }
+
+    private final EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+    private final Map<String, String> headers = Map.of(
+            "X-Api-Key", ConfigReader.getApiKey(),
+            "Accept", "application/json");
+
+    /**
+     * Время отсчитывается от команды остановки. Не дождавшись восстановления за
+     * app.recovery.timeout.ms, возвращает результат с -1 в недостигнутых полях.
+     */
+    public Result restartAndMeasure(boolean graceful) {
+        double[] baseline = new double[BASELINE_PROBES];
+        for (int i = 0; i < baseline.length; i++) {
+            ScenarioWatchdog.checkCurrent();
+            baseline[i] = probe();
+            if (baseline[i] < 0) {
+                throw new IllegalStateException("Приложение не отвечает OK на LOGIN до перезапуска");
+            }
+        }
+        Result result = new Result(graceful, median(baseline));
+        double steadyLimitMs = Math.max(result.baselineP50Ms * ConfigReader.getAppSteadyTolerance(),
+                result.baselineP50Ms + STEADY_SLACK_MS);
+
+        long startedAt = System.nanoTime();
+        result.stoppedAtNanos = startedAt;
+        if (graceful) {
+            AppManager.stop();
+        } else {
+            AppManager.kill();
+        }
+        result.stopMs = sinceMs(startedAt);
+        AppManager.start(false);
+        result.listeningMs = sinceMs(startedAt);
+
+        long deadline = startedAt + ConfigReader.getAppRecoveryTimeoutMs() * 1_000_000L;
+        double[] window = new double[STEADY_WINDOW];
+        int filled = 0;
+        while (System.nanoTime() < deadline) {
+            ScenarioWatchdog.checkCurrent();
+            double latencyMs = probe();
+            if (latencyMs < 0) {
+                result.failedProbes++;
+                filled = 0;
+                pause();
+                continue;
+            }
+            if (result.firstSuccessMs < 0) {
+                result.firstSuccessMs = sinceMs(startedAt);
+            }
+
+            window[filled % STEADY_WINDOW] = latencyMs;
+            filled++;
+            if (filled >= STEADY_WINDOW) {
+                double p50 = median(window);
+                result.steadyP50Ms = p50;
+                if (p50 <= steadyLimitMs) {
+                    result.steadyMs = sinceMs(startedAt);
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * LOGIN с новым корректным токеном
+     *
+     * @return задержка в мс или -1, если ответ не OK
+     */
+    private double probe() {
+        String token = UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+        long startedAt = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.post(headers, Map.of("action", "LOGIN", "token", token));
+            return "OK".equals(EndpointClient.result(response.body())) ? sinceMs(startedAt) : -1;
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(RETRY_PAUSE_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static double sinceMs(long startedAt) {
+        return (System.nanoTime() - startedAt) / 1e6;
+    }
+}
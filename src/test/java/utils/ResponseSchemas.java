@@ -0,0 +1,81 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Контракт ответов /endpoint: схемы schemas/endpoint-ok.json и schemas/endpoint-error.json.
+ *
+ * Схемы компилируются один раз при загрузке класса; JsonSchema неизменяема и
+ * используется из любых потоков. Самый частый ответ {"result":"OK"} проверяется
+ * без обращения к валидатору.
+ */
+public class ResponseSchemas {
+    private static final String OK_BODY = "{\"result\":\"OK\"}";
+    private static final int MAX_SHOWN_BODY = 200;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonSchemaFactory FACTORY = JsonSchemaFactory.byDefault();
+    private static final JsonSchema OK = load("schemas/endpoint-ok.json");
+    private static final JsonSchema ERROR = load("schemas/endpoint-error.json");
+
+    /**
+     * @return описание нарушения или null, если ответ соответствует контракту
+     */
+    public static String validate(String body) {
+        if (OK_BODY.equals(body)) return null;
+
+        JsonNode node;
+        try {
+            node = MAPPER.readTree(body == null ? "" : body);
+        } catch (IOException e) {
+            return "ответ не JSON: " + show(body);
+        }
+        if (node == null || !node.isObject()) {
+            return "ответ не JSON-объект: " + show(body);
+        }
+
+        // Тот же OK с другим форматированием
+        JsonNode result = node.get("result");
+        boolean ok = result != null && "OK".equals(result.textValue());
+        if (ok && node.size() == 1) return null;
+
+        try {
+            ProcessingReport report = (ok ? OK : ERROR).validate(node);
+            if (report.isSuccess()) return null;
+
+            StringBuilder sb = new StringBuilder(ok ? "схема OK: " : "схема ERROR: ");
+            for (ProcessingMessage message : report) {
+                String pointer = message.asJson().path("instance").path("pointer").asText();
+                sb.append(pointer.isEmpty() ? "/" : pointer).append(" — ").append(message.getMessage()).append("; ");
+            }
+            return sb.append("ответ: ").append(show(body)).toString();
+        } catch (ProcessingException e) {
+            return "ошибка валидации: " + e.getMessage();
+        }
+    }
+
+    private static JsonSchema load(String resource) {
+        try (InputStream in = ResponseSchemas.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException("Схема не найдена в classpath: " + resource);
+            }
+            return FACTORY.getJsonSchema(MAPPER.readTree(in));
+        } catch (IOException | ProcessingException e) {
+            throw new IllegalStateException("Не удалось загрузить схему " + resource, e);
+        }
+    }
+
+    private static String show(String body) {
+        if (body == null) return "null";
+        return body.length() > MAX_SHOWN_BODY ? body.substring(0, MAX_SHOWN_BODY) + "…" : body;
+    }
+}
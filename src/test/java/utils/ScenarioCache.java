@@ -0,0 +1,188 @@
+package utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Кэш успешных сценариев для инкрементального режима (-Dincremental.enabled=true).
+ *
+ * Ключ сценария — SHA-256 от файла фичи, классов glue (stepdefinitions, hooks, utils),
+ * config.properties и jar приложения (app.jar) или его версии (app.version, для внешнего приложения).
+ * Без них приложение в ключ не попадает, поэтому режим не запускается. Сценарий пропускается, только если
+ * последний прогон с тем же ключом прошел успешно; упавшие сценарии из кэша удаляются.
+ */
+public class ScenarioCache {
+    private static final List<String> GLUE_PACKAGES = List.of("stepdefinitions", "hooks", "utils");
+
+    private static final Map<String, String> passed = new ConcurrentHashMap<>(load());
+    private static final Map<String, String> featureHashes = new ConcurrentHashMap<>();
+    private static volatile String environmentHash;
+
+    /**
+     * @return true, если сценарий можно не запускать
+     */
+    public static boolean isUpToDate(String scenarioId) {
+        String key = passed.get(scenarioId);
+        return key != null && key.equals(keyOf(scenarioId));
+    }
+
+    /**
+     * Проверка до запуска сценариев: без app.jar и app.version режим не работает
+     */
+    public static void requireAppIdentity() {
+        String appVersion = ConfigReader.getAppVersion();
+        if (ConfigReader.getAppJar() == null && (appVersion == null || appVersion.isBlank())) {
+            throw new IllegalStateException("Инкрементальный режим: не задан ни -Dapp.jar, ни -Dapp.version — "
+                    + "без версии приложения прошедшие сценарии пропускались бы и против другой его сборки");
+        }
+    }
+
+    public static void record(String scenarioId, boolean success) {
+        if (success) {
+            passed.put(scenarioId, keyOf(scenarioId));
+        } else {
+            passed.remove(scenarioId);
+        }
+    }
+
+    /**
+     * Сохраняет кэш атомарно (через временный файл).
+     */
+    public static synchronized void save() {
+        Path file = Paths.get(ConfigReader.getIncrementalCacheFile());
+        Properties properties = new Properties();
+        properties.putAll(passed);
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path tmp = Files.createTempFile(file.toAbsolutePath().getParent(), "cache", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                properties.store(out, "scenario id -> key of last passed run");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Не удалось сохранить кэш сценариев: " + e.getMessage());
+        }
+    }
+
+    private static String keyOf(String scenarioId) {
+        String feature = scenarioId.substring(0, scenarioId.lastIndexOf(':'));
+        String featureHash = featureHashes.computeIfAbsent(feature, ScenarioCache::hashFeature);
+        return sha256((environmentHash() + featureHash).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String environmentHash() {
+        if (environmentHash == null) {
+            synchronized (ScenarioCache.class) {
+                if (environmentHash == null) {
+                    MessageDigest digest = newDigest();
+                    Path classesRoot = classesRoot();
+                    for (String glue : GLUE_PACKAGES) {
+                        hashTree(digest, classesRoot.resolve(glue));
+                    }
+                    try (InputStream config = ScenarioCache.class.getClassLoader().getResourceAsStream("config.properties")) {
+                        if (config != null) digest.update(config.readAllBytes());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    requireAppIdentity();
+                    String appJar = ConfigReader.getAppJar();
+                    if (appJar != null) {
+                        hashFile(digest, Paths.get(appJar));
+                    } else {
+                        digest.update(("app.version=" + ConfigReader.getAppVersion()).getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    environmentHash = HexFormat.of().formatHex(digest.digest());
+                }
+            }
+        }
+        return environmentHash;
+    }
+
+    private static String hashFeature(String feature) {
+        try (InputStream input = ScenarioCache.class.getClassLoader().getResourceAsStream(feature)) {
+            return input == null ? "missing" : sha256(input.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void hashTree(MessageDigest digest, Path dir) {
+        if (!Files.isDirectory(dir)) return;
+
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                digest.update(dir.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                hashFile(digest, file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void hashFile(MessageDigest digest, Path file) {
+        if (!Files.isRegularFile(file)) return;
+
+        try (InputStream input = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path classesRoot() {
+        try {
+            return Paths.get(ScenarioCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> load() {
+        Path file = Paths.get(ConfigReader.getIncrementalCacheFile());
+        Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (InputStream input = Files.newInputStream(file)) {
+                properties.load(input);
+            } catch (IOException e) {
+                System.err.println("Кэш сценариев поврежден, будет пересоздан: " + e.getMessage());
+            }
+        }
+        return properties.stringPropertyNames().stream()
+                .collect(Collectors.toMap(k -> k, properties::getProperty));
+    }
+
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(newDigest().digest(bytes));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Исторические длительности сценариев из отчета cucumber.json предыдущего прогона.
+ */
+public class ScenarioDurations {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Читает отчет потоково (по одной фиче за раз) и суммирует длительности контекста, шагов и хуков сценария.
+     *
+     * @return идентификатор сценария -> длительность в наносекундах; пустая карта, если отчета нет
+     */
+    public static Map<String, Long> read(Path report) {
+        Map<String, Long> durations = new HashMap<>();
+        if (!Files.isRegularFile(report)) return durations;
+
+        try (JsonParser parser = MAPPER.getFactory().createParser(report.toFile())) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) return durations;
+
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                JsonNode feature = parser.readValueAsTree();
+                String uri = feature.path("uri").asText();
+
+                // Шаги "Контекст" идут отдельным элементом перед каждым сценарием
+                long background = 0;
+                for (JsonNode element : feature.path("elements")) {
+                    if ("background".equals(element.path("type").asText())) {
+                        background = sum(element.path("steps"));
+                        continue;
+                    }
+
+                    long total = background + sum(element.path("before")) + sum(element.path("steps")) + sum(element.path("after"));
+                    background = 0;
+                    durations.merge(ScenarioIds.of(uri, element.path("line").asInt()), total, Long::sum);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Не удалось прочитать длительности из " + report + ": " + e.getMessage());
+            durations.clear();
+        }
+        return durations;
+    }
+
+    private static long sum(JsonNode steps) {
+        long total = 0;
+        for (JsonNode step : steps) {
+            total += step.path("result").path("duration").asLong(0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,49 @@
+package utils;
+
+import org.junit.platform.engine.TestDescriptor;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClasspathResourceSource;
+import org.junit.platform.engine.support.descriptor.FilePosition;
+import org.junit.platform.engine.support.descriptor.FileSource;
+
+import java.net.URI;
+
+/**
+ * Единый идентификатор сценария вида "features/authentication.feature:12"
+ * для отчетов Cucumber, хуков и дерева тестов JUnit Platform.
+ */
+public class ScenarioIds {
+
+    public static String of(URI uri, int line) {
+        return of(uri.toString(), line);
+    }
+
+    public static String of(String uri, int line) {
+        return normalize(uri) + ":" + line;
+    }
+
+    /**
+     * @return идентификатор или null, если дескриптор не является сценарием Cucumber
+     */
+    public static String of(TestDescriptor descriptor) {
+        TestSource source = descriptor.getSource().orElse(null);
+
+        if (source instanceof ClasspathResourceSource resource && resource.getPosition().isPresent()) {
+            return of(resource.getClasspathResourceName(), resource.getPosition().map(FilePosition::getLine).get());
+        }
+        if (source instanceof FileSource file && file.getPosition().isPresent()) {
+            return of(file.getFile().toURI().toString(), file.getPosition().map(FilePosition::getLine).get());
+        }
+        return null;
+    }
+
+    private static String normalize(String uri) {
+        String path = uri.replace('\\', '/');
+        if (path.startsWith("classpath:")) path = path.substring("classpath:".length());
+
+        int features = path.lastIndexOf("features/");
+        if (features >= 0) path = path.substring(features);
+        while (path.startsWith("/")) path = path.substring(1);
+        return path;
+    }
+}
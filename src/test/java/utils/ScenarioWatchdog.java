@@ -0,0 +1,132 @@
+package utils;
+
+import io.qameta.allure.Allure;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MonitorInfo;
+import java.lang.management.ThreadInfo;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сторожевой таймер сценария: по истечении бюджета снимает дамп потоков тестовой JVM
+ * (и приложения, если оно запущено локально через AppManager) в момент зависания.
+ * Сценарий роняется в ближайшем @AfterStep, а шаги с долгими циклами запросов (набор данных,
+ * повторы больших запросов, пробы перезапуска) проверяют бюджет на каждой итерации через
+ * {@link #checkCurrent()}. Каждый HTTP-запрос ограничен timeout.ms, поэтому зависший сценарий
+ * не блокирует поток (форк) дольше бюджета + timeout.ms (для набора данных — плюс запросы,
+ * которые потоки набора уже выполняют).
+ */
+public class ScenarioWatchdog {
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "scenario-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ThreadLocal<ScenarioWatchdog> current = new ThreadLocal<>();
+
+    private final String scenarioName;
+    private final long budgetMs;
+    private final ScheduledFuture<?> timer;
+
+    private boolean finished;
+    private String testDump;
+    private String appDump;
+
+    private ScenarioWatchdog(String scenarioName, long budgetMs) {
+        this.scenarioName = scenarioName;
+        this.budgetMs = budgetMs;
+        this.timer = budgetMs > 0 ? TIMER.schedule(this::expire, budgetMs, TimeUnit.MILLISECONDS) : null;
+    }
+
+    /**
+     * Запускает таймер для сценария, budgetMs <= 0 отключает контроль.
+     */
+    public static ScenarioWatchdog start(String scenarioName, long budgetMs) {
+        ScenarioWatchdog watchdog = new ScenarioWatchdog(scenarioName, budgetMs);
+        current.set(watchdog);
+        return watchdog;
+    }
+
+    /**
+     * Проверка бюджета сценария текущего потока внутри шага; вне сценария ничего не делает
+     */
+    public static void checkCurrent() {
+        ScenarioWatchdog watchdog = current.get();
+        if (watchdog != null) watchdog.check();
+    }
+
+    /**
+     * Роняет сценарий, если бюджет исчерпан. Дампы прикладываются к Allure один раз.
+     */
+    public void check() {
+        String test;
+        String app;
+        synchronized (this) {
+            if (testDump == null) return;
+            test = testDump;
+            app = appDump;
+            testDump = null;
+            appDump = null;
+        }
+
+        Allure.addAttachment("Дамп потоков тестов", "text/plain", test);
+        if (app != null) {
+            Allure.addAttachment("Дамп потоков приложения", "text/plain", app);
+        }
+        throw new AssertionError("Сценарий \"" + scenarioName + "\" превысил бюджет " + budgetMs + " мс");
+    }
+
+    public synchronized void finish() {
+        if (current.get() == this) current.remove();
+        finished = true;
+        if (timer != null) timer.cancel(false);
+    }
+
+    private void expire() {
+        synchronized (this) {
+            if (finished) return;
+        }
+
+        String test = threadDump();
+        String app = AppManager.threadDump();
+        System.err.println("⏱ Сценарий \"" + scenarioName + "\" превысил бюджет " + budgetMs + " мс");
+
+        synchronized (this) {
+            testDump = test;
+            appDump = app;
+        }
+    }
+
+    /**
+     * Дамп всех потоков текущей JVM с полными стеками и удерживаемыми блокировками
+     */
+    public static String threadDump() {
+        StringBuilder sb = new StringBuilder();
+        for (ThreadInfo info : ManagementFactory.getThreadMXBean().dumpAllThreads(true, true)) {
+            sb.append('"').append(info.getThreadName()).append("\" #").append(info.getThreadId())
+                    .append(info.isDaemon() ? " daemon" : "")
+                    .append(' ').append(info.getThreadState());
+            if (info.getLockName() != null) sb.append(" on ").append(info.getLockName());
+            if (info.getLockOwnerName() != null) sb.append(" owned by \"").append(info.getLockOwnerName()).append('"');
+            sb.append('\n');
+
+            StackTraceElement[] stack = info.getStackTrace();
+            for (int i = 0; i < stack.length; i++) {
+                sb.append("\tat ").append(stack[i]).append('\n');
+                for (MonitorInfo monitor : info.getLockedMonitors()) {
+                    if (monitor.getLockedStackDepth() == i) sb.append("\t- locked ").append(monitor).append('\n');
+                }
+            }
+            for (LockInfo lock : info.getLockedSynchronizers()) {
+                sb.append("\t- locked synchronizer ").append(lock).append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
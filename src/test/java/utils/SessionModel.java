@@ -0,0 +1,64 @@
+package utils;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Эталонная модель сессии токена для LOGIN/ACTION/LOGOUT (внешний сервис отвечает успешно):
+ * - LOGIN всегда OK, сессия активна (в том числе повторный LOGIN и LOGIN после LOGOUT);
+ * - ACTION — OK только для активной сессии;
+ * - LOGOUT — OK только для активной сессии, после него сессия завершена (повторный LOGOUT — ERROR).
+ */
+public class SessionModel {
+
+    public enum Action {LOGIN, ACTION, LOGOUT}
+
+    public enum State {NEW, ACTIVE, LOGGED_OUT}
+
+    public static String expectedResult(State state, Action action) {
+        return action == Action.LOGIN || state == State.ACTIVE ? "OK" : "ERROR";
+    }
+
+    public static State next(State state, Action action) {
+        switch (action) {
+            case LOGIN:
+                return State.ACTIVE;
+            case LOGOUT:
+                return state == State.ACTIVE ? State.LOGGED_OUT : state;
+            default:
+                return state;
+        }
+    }
+
+    /**
+     * Проверка группы одновременных запросов к одному токену: ответы допустимы, если существует
+     * порядок выполнения, в котором модель дает те же результаты.
+     *
+     * @param states  возможные состояния токена до группы
+     * @param actions действия группы
+     * @param results наблюдаемые результаты (в порядке actions)
+     * @return возможные состояния после группы, пустое множество — нарушение модели
+     */
+    public static Set<State> apply(Set<State> states, List<Action> actions, List<String> results) {
+        Set<State> after = EnumSet.noneOf(State.class);
+        for (State state : states) {
+            permute(state, actions, results, new boolean[actions.size()], 0, after);
+        }
+        return after;
+    }
+
+    private static void permute(State state, List<Action> actions, List<String> results,
+                                boolean[] used, int depth, Set<State> after) {
+        if (depth == actions.size()) {
+            after.add(state);
+            return;
+        }
+        for (int i = 0; i < actions.size(); i++) {
+            if (used[i] || !expectedResult(state, actions.get(i)).equals(results.get(i))) continue;
+            used[i] = true;
+            permute(next(state, actions.get(i)), actions, results, used, depth + 1, after);
+            used[i] = false;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package utils;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Потоковый генератор вариантов токена для фаззинга LOGIN.
+ *
+ * Случаи не хранятся в памяти: i-й случай вычисляется из (seed, i), поэтому любой
+ * найденный случай воспроизводится по сиду и индексу (generate(seed, index)).
+ */
+public class TokenFuzzer {
+    private static final Pattern ORACLE = Pattern.compile("[0-9A-F]{32}");
+    private static final String HEX = "0123456789ABCDEF";
+    private static final String NON_HEX = "GHIJKLMNOPQRSTUVWXYZ!@#$%^&*()-_=+[]{};:'\",.<>/?\\|`~";
+    private static final int[] BOUNDARY_LENGTHS = {0, 1, 15, 16, 30, 31, 33, 34, 63, 64};
+    private static final String[] UNICODE = {
+            "\u0410", "\u0412", "\u0421", "\u0415",   // кириллические А, В, С, Е
+            "\uFF10", "\uFF21",                     // полноширинные 0 и A
+            "\u00C9", "\u00A0", "\u200B", "\uFEFF", "\u0301", "\uD83D\uDE00"
+    };
+    private static final String[] WHITESPACE = {" ", "\t", "\n", "\r\n", "\u000B", "\f"};
+    private static final String[] INJECTIONS = {
+            "' OR '1'='1", "\"; DROP TABLE sessions;--", "<script>alert(1)</script>", "${jndi:ldap://x/a}",
+            "../../../../etc/passwd", "%00", "\u0000", "&action=LOGOUT", "{{7*7}}", "\r\nX-Injected: 1",
+            "null", "undefined", "[]", "{}", "%s%s%s%n"
+    };
+
+    public enum Category {
+        VALID(15), BOUNDARY_LENGTH(15), NON_HEX(15), LOWERCASE(10), UNICODE(10),
+        WHITESPACE(10), LONG(2), INJECTION(8), MUTATION(15);
+
+        final int weight;
+
+        Category(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private static final int TOTAL_WEIGHT = Stream.of(Category.values()).mapToInt(c -> c.weight).sum();
+
+    public static class FuzzCase {
+        public final long index;
+        public final Category category;
+        public final String token;
+
+        FuzzCase(long index, Category category, String token) {
+            this.index = index;
+            this.category = category;
+            this.token = token;
+        }
+    }
+
+    /**
+     * Оракул: токен корректен тогда и только тогда, когда соответствует ^[0-9A-F]{32}$
+     * (без допуска завершающего перевода строки, как у $ в find()).
+     */
+    public static boolean isValidToken(String token) {
+        return token != null && ORACLE.matcher(token).matches();
+    }
+
+    /**
+     * Ленивый поток из count случаев
+     */
+    public static Stream<FuzzCase> stream(long seed, long count) {
+        return LongStream.range(0, count).mapToObj(index -> generate(seed, index));
+    }
+
+    public static FuzzCase generate(long seed, long index) {
+        SplittableRandom random = new SplittableRandom(seed * 0x9E3779B97F4A7C15L + index);
+        Category category = pick(random);
+        return new FuzzCase(index, category, build(category, random));
+    }
+
+    private static Category pick(SplittableRandom random) {
+        int roll = random.nextInt(TOTAL_WEIGHT);
+        for (Category category : Category.values()) {
+            roll -= category.weight;
+            if (roll < 0) return category;
+        }
+        return Category.VALID;
+    }
+
+    private static String build(Category category, SplittableRandom random) {
+        switch (category) {
+            case BOUNDARY_LENGTH:
+                return hex(random, BOUNDARY_LENGTHS[random.nextInt(BOUNDARY_LENGTHS.length)]);
+            case NON_HEX:
+                return replaceSome(random, hex(random, 32), NON_HEX);
+            case LOWERCASE: {
+                StringBuilder token = new StringBuilder(hex(random, 32));
+                // хотя бы одна буква в нижнем регистре
+                token.setCharAt(random.nextInt(32), "abcdef".charAt(random.nextInt(6)));
+                return random.nextBoolean() ? token.toString().toLowerCase(Locale.ROOT) : token.toString();
+            }
+            case UNICODE:
+                return insert(random, hex(random, 32), UNICODE[random.nextInt(UNICODE.length)], random.nextBoolean());
+            case WHITESPACE: {
+                String space = WHITESPACE[random.nextInt(WHITESPACE.length)];
+                String token = hex(random, 32);
+                switch (random.nextInt(3)) {
+                    case 0: return space + token;
+                    case 1: return token + space;
+                    default: return insert(random, token, space, true);
+                }
+            }
+            case LONG:
+                return hex(random, random.nextInt(33, 65_537));
+            case INJECTION: {
+                String payload = INJECTIONS[random.nextInt(INJECTIONS.length)];
+                return random.nextBoolean() ? payload : hex(random, 32) + payload;
+            }
+            case MUTATION:
+                return mutate(random, hex(random, 32));
+            case VALID:
+            default:
+                return hex(random, 32);
+        }
+    }
+
+    private static String hex(SplittableRandom random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = HEX.charAt(random.nextInt(16));
+        }
+        return new String(chars);
+    }
+
+    private static String replaceSome(SplittableRandom random, String token, String alphabet) {
+        StringBuilder sb = new StringBuilder(token);
+        for (int i = 1 + random.nextInt(3); i > 0; i--) {
+            sb.setCharAt(random.nextInt(sb.length()), alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Вставка (insert=true) или замена одного символа фрагментом
+     */
+    private static String insert(SplittableRandom random, String token, String fragment, boolean insert) {
+        int position = random.nextInt(token.length());
+        return token.substring(0, position) + fragment + token.substring(insert ? position : position + 1);
+    }
+
+    /**
+     * 1-3 случайные правки: удаление, дублирование, перестановка соседних, замена произвольным символом BMP
+     */
+    private static String mutate(SplittableRandom random, String token) {
+        StringBuilder sb = new StringBuilder(token);
+        for (int i = 1 + random.nextInt(3); i > 0 && sb.length() > 1; i--) {
+            int position = random.nextInt(sb.length() - 1);
+            switch (random.nextInt(4)) {
+                case 0:
+                    sb.deleteCharAt(position);
+                    break;
+                case 1:
+                    sb.insert(position, sb.charAt(position));
+                    break;
+                case 2: {
+                    char c = sb.charAt(position);
+                    sb.setCharAt(position, sb.charAt(position + 1));
+                    sb.setCharAt(position + 1, c);
+                    break;
+                }
+                default:
+                    sb.setCharAt(position, (char) random.nextInt(0x20, 0xD800));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package utils;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул заранее аутентифицированных токенов для сценариев, которым нужна активная сессия,
+ * но которые не проверяют сам LOGIN (-Dtoken.pool.enabled, по умолчанию включен).
+ *
+ * Токены логинятся пачками по token.pool.size параллельно при первой аренде и по мере
+ * исчерпания пула, поэтому прогоны без таких сценариев (например, @dataset) LOGIN пула не тратят. Сценарий арендует токен; токен, отправленный в LOGOUT, выбывает,
+ * остальные после успешного сценария возвращаются в пул.
+ * invalidate() начинает новое поколение пула: токены прежних поколений, арендованные
+ * в любых потоках, при возврате выбывают.
+ */
+public class TokenPool {
+    private static final Deque<String> available = new ConcurrentLinkedDeque<>();
+    // токен -> поколение пула, в котором он был арендован
+    private static final ThreadLocal<Map<String, Integer>> leased = ThreadLocal.withInitial(LinkedHashMap::new);
+    private static final AtomicInteger generation = new AtomicInteger();
+    private static final int LEASE_ATTEMPTS = 3;
+
+    public static boolean isEnabled() {
+        return ConfigReader.isTokenPoolEnabled();
+    }
+
+    /**
+     * Пачка параллельных LOGIN. Заглушки /auth регистрируются в вызывающем потоке
+     * (статический клиент WireMock настроен для потока тестов).
+     */
+    public static synchronized void fill() {
+        int size = ConfigReader.getTokenPoolSize();
+        int filledGeneration = generation.get();
+        List<String> tokens = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String token = UUID.randomUUID().toString().replace("-", "").toUpperCase(Locale.ROOT);
+            if (ConfigReader.isWireMockEnabled()) {
+                WireMockManager.setupMockAuthSuccess(token);
+            }
+            tokens.add(token);
+        }
+
+        EndpointClient client = new EndpointClient(ConfigReader.getBaseUrl());
+        Map<String, String> headers = Map.of("X-Api-Key", ConfigReader.getApiKey(), "Accept", "application/json");
+
+        long startedAt = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> logins = new ArrayList<>(size);
+        for (String token : tokens) {
+            logins.add(client.postAsync(headers, Map.of("action", "LOGIN", "token", token)));
+        }
+
+        String failure = null;
+        for (int i = 0; i < size; i++) {
+            try {
+                HttpResponse<String> response;
+                try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.HTTP)) {
+                    response = logins.get(i).join();
+                }
+                if (TrafficRecorder.isEnabled()) {
+                    // пул логинит токены в обход шагов, без записи replay не воспроизвел бы эти сессии
+                    Map<String, String> form = new LinkedHashMap<>();
+                    form.put("token", tokens.get(i));
+                    form.put("action", "LOGIN");
+                    TrafficRecorder.recordRequest(new LinkedHashMap<>(headers), form, response.statusCode(), response.body());
+                }
+                if (filledGeneration != generation.get()) {
+                    // пул сброшен во время пополнения, сессии могли быть потеряны
+                    continue;
+                }
+                if ("OK".equals(EndpointClient.result(response.body()))) {
+                    available.add(tokens.get(i));
+                } else if (failure == null) {
+                    failure = response.statusCode() + " " + response.body();
+                }
+            } catch (RuntimeException e) {
+                if (failure == null) failure = e.toString();
+            }
+        }
+        PerfStats.record("pool.fill", System.nanoTime() - startedAt);
+
+        if (available.isEmpty() && filledGeneration == generation.get()) {
+            throw new IllegalStateException("Пул токенов: ни один LOGIN не прошел, первый ответ: " + failure);
+        }
+    }
+
+    /**
+     * @return токен с активной сессией; пул пополняется, если пуст
+     */
+    public static String lease() {
+        for (int attempt = 0; attempt < LEASE_ATTEMPTS; attempt++) {
+            String token = available.poll();
+            if (token == null) {
+                fill();
+                // пул могли разобрать параллельные сценарии между пополнением и арендой
+                token = available.poll();
+            }
+            if (token != null) {
+                leased.get().put(token, generation.get());
+                return token;
+            }
+        }
+        throw new IllegalStateException("Пул токенов: не удалось арендовать токен за " + LEASE_ATTEMPTS + " пополнения");
+    }
+
+    /**
+     * Возврат токена, сессия которого осталась активной
+     */
+    public static void release(String token) {
+        Integer leasedIn = leased.get().remove(token);
+        if (leasedIn != null && leasedIn == generation.get()) {
+            available.addFirst(token);
+        }
+    }
+
+    /**
+     * Токен отправлен в LOGOUT (или его состояние неизвестно) и в пул не возвращается
+     */
+    public static void discard(String token) {
+        leased.get().remove(token);
+    }
+
+    /**
+     * Завершение сценария: арендованные токены возвращаются в пул,
+     * а после упавшего сценария — выбывают (состояние сессии неизвестно).
+     */
+    public static void releaseLeases(boolean reusable) {
+        Map<String, Integer> tokens = leased.get();
+        if (reusable) {
+            int current = generation.get();
+            tokens.forEach((token, leasedIn) -> {
+                if (leasedIn == current) available.addFirst(token);
+            });
+        }
+        tokens.clear();
+    }
+
+    /**
+     * Сессии потеряны (например, приложение перезапущено): пул сбрасывается, токены,
+     * арендованные до сброса в любом потоке, в пул больше не вернутся
+     */
+    public static void invalidate() {
+        generation.incrementAndGet();
+        available.clear();
+        leased.get().clear();
+    }
+
+    public static int availableCount() {
+        return available.size();
+    }
+}
@@ -0,0 +1,121 @@
+package utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.http.HttpHeader;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.Response;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Запись трафика функционального прогона (-Dtraffic.record=true) для последующего воспроизведения.
+ *
+ * Формат — NDJSON (по gzip-потоку, если файл *.gz), одна строка на событие, пишется сразу в файл:
+ * {"type":"mock", "at", "ts", "method", "url", "body", "status", "contentType", "response"} — обращение приложения к WireMock;
+ * {"type":"request", "at", "ts", "headers", "form", "status", "response"} — запрос тестов к /endpoint.
+ * at — миллисекунды от начала записи (для воспроизведения с той же интенсивностью), ts — время в epoch ms.
+ *
+ * Файл один на JVM (у форков — свой, см. {@link ForkReports}): открывается при первом событии
+ * и закрывается при выходе из JVM, поэтому следующий набор тестов в той же JVM дописывает ту же запись.
+ */
+public class TrafficRecorder {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final long startedAt = System.nanoTime();
+
+    private static Writer writer;
+    private static boolean closed;
+
+    public static boolean isEnabled() {
+        return ConfigReader.isTrafficRecordEnabled();
+    }
+
+    public static void recordRequest(Map<String, String> headers, Map<String, String> form, int status, String response) {
+        Map<String, Object> event = event("request");
+        event.put("headers", headers);
+        event.put("form", form);
+        event.put("status", status);
+        event.put("response", response);
+        write(event);
+    }
+
+    /**
+     * Слушатель WireMock: запоминает запрос приложения к моку и отданный ответ
+     */
+    public static void recordMock(Request request, Response response) {
+        HttpHeader contentType = response.getHeaders().getHeader("Content-Type");
+
+        Map<String, Object> event = event("mock");
+        event.put("method", request.getMethod().getName());
+        event.put("url", request.getUrl());
+        event.put("body", request.getBodyAsString());
+        event.put("status", response.getStatus());
+        event.put("contentType", contentType.isPresent() ? contentType.firstValue() : null);
+        event.put("response", response.getBodyAsString());
+        write(event);
+    }
+
+    /**
+     * Сброс буфера в конце набора тестов; файл остается открытым до выхода из JVM
+     */
+    public static synchronized void flush() {
+        if (writer == null) return;
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Не удалось записать трафик: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+            System.out.println("Запись трафика сохранена: " + ForkReports.path(ConfigReader.getTrafficFile()));
+        } catch (IOException e) {
+            System.err.println("Не удалось закрыть запись трафика: " + e.getMessage());
+        }
+        writer = null;
+        closed = true;
+    }
+
+    private static Map<String, Object> event(String type) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", type);
+        event.put("at", (System.nanoTime() - startedAt) / 1_000_000);
+        event.put("ts", System.currentTimeMillis());
+        return event;
+    }
+
+    private static synchronized void write(Map<String, Object> event) {
+        try {
+            if (closed) return;
+            if (writer == null) {
+                writer = open(ForkReports.path(ConfigReader.getTrafficFile()));
+                Runtime.getRuntime().addShutdownHook(new Thread(TrafficRecorder::close, "traffic-recorder-close"));
+            }
+            writer.write(MAPPER.writeValueAsString(event));
+            writer.write('\n');
+        } catch (IOException e) {
+            System.err.println("Не удалось записать трафик: " + e.getMessage());
+        }
+    }
+
+    private static Writer open(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        OutputStream out = Files.newOutputStream(file);
+        if (file.getFileName().toString().endsWith(".gz")) {
+            out = new GZIPOutputStream(out, 64 * 1024);
+        }
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+}
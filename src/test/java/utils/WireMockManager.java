@@ -1,6 +1,8 @@
 package utils;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.MappingBuilder;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
 
@@ -13,10 +15,23 @@ public class WireMockManager {
     private static final int MOCK_PORT = 8888;
 
     public static void startServer() {
+        startServer(true);
+    }
+
+    /**
+     * @param requestJournal false — не хранить принятые запросы (нагрузочные утилиты с сотнями тысяч
+     *                       обращений к моку; verify по журналу тогда недоступен)
+     */
+    public static void startServer(boolean requestJournal) {
         if (wireMockServer == null || !wireMockServer.isRunning()) {
-            wireMockServer = new WireMockServer(
-                    WireMockConfiguration.options().port(MOCK_PORT)
-            );
+            WireMockConfiguration options = WireMockConfiguration.options().port(MOCK_PORT);
+            if (!requestJournal) {
+                options.disableRequestJournal();
+            }
+            wireMockServer = new WireMockServer(options);
+            if (TrafficRecorder.isEnabled()) {
+                wireMockServer.addMockServiceRequestListener(TrafficRecorder::recordMock);
+            }
             wireMockServer.start();
             WireMock.configureFor("localhost", MOCK_PORT);
             System.out.println("WireMock сервер запущен на порту: " + MOCK_PORT);
@@ -32,12 +47,14 @@ public class WireMockManager {
 
     public static void resetAll() {
         if (wireMockServer != null) {
-            wireMockServer.resetAll();
+            try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.WIREMOCK)) {
+                wireMockServer.resetAll();
+            }
         }
     }
 
     public static void setupMockAuthSuccess(String token) {
-        stubFor(post(urlEqualTo("/auth"))
+        register(post(urlEqualTo("/auth"))
                 .withRequestBody(equalTo("token=" + token))
                 .willReturn(aResponse()
                         .withStatus(200)
@@ -46,7 +63,7 @@ public class WireMockManager {
     }
 
     public static void setupMockAuthError(String token) {
-        stubFor(post(urlEqualTo("/auth"))
+        register(post(urlEqualTo("/auth"))
                 .withRequestBody(equalTo("token=" + token))
                 .willReturn(aResponse()
                         .withStatus(500)
@@ -55,7 +72,7 @@ public class WireMockManager {
     }
 
     public static void setupMockActionSuccess(String token) {
-        stubFor(post(urlEqualTo("/doAction"))
+        register(post(urlEqualTo("/doAction"))
                 .withRequestBody(equalTo("token=" + token))
                 .willReturn(aResponse()
                         .withStatus(200)
@@ -64,7 +81,7 @@ public class WireMockManager {
     }
 
     public static void setupMockActionError(String token) {
-        stubFor(post(urlEqualTo("/doAction"))
+        register(post(urlEqualTo("/doAction"))
                 .withRequestBody(equalTo("token=" + token))
                 .willReturn(aResponse()
                         .withStatus(403)
@@ -72,6 +89,56 @@ public class WireMockManager {
                         .withBody("{\"error\":\"Forbidden\"}")));
     }
 
+    /**
+     * Успешные ответы /auth и /doAction для любого токена (низкий приоритет —
+     * заглушки под конкретный токен имеют преимущество). Для нагрузочных утилит и фаззинга.
+     */
+    public static void setupMockCatchAllSuccess() {
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.WIREMOCK)) {
+            wireMockServer.stubFor(post(urlEqualTo("/auth"))
+                    .atPriority(10)
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"status\":\"OK\"}")));
+            wireMockServer.stubFor(post(urlEqualTo("/doAction"))
+                    .atPriority(10)
+                    .willReturn(aResponse()
+                            .withStatus(200)
+                            .withHeader("Content-Type", "application/json")
+                            .withBody("{\"status\":\"OK\", \"action\":\"completed\"}")));
+        }
+    }
+
+    /**
+     * Восстановление заглушки из записи трафика: тот же запрос — тот же ответ
+     */
+    public static void setupMockFromRecording(String method, String url, String requestBody,
+                                              int status, String contentType, String responseBody) {
+        MappingBuilder mapping = request(method, urlEqualTo(url));
+        if (requestBody != null && !requestBody.isEmpty()) {
+            mapping.withRequestBody(equalTo(requestBody));
+        }
+
+        ResponseDefinitionBuilder response = aResponse().withStatus(status);
+        if (contentType != null) response.withHeader("Content-Type", contentType);
+        if (responseBody != null) response.withBody(responseBody);
+
+        // Через сервер напрямую: статический клиент WireMock настроен только для потока, вызвавшего configureFor
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.WIREMOCK)) {
+            wireMockServer.stubFor(mapping.willReturn(response));
+        }
+    }
+
+    /**
+     * Заглушка под конкретный токен через клиент WireMock (HTTP admin API), время — в HarnessProfile
+     */
+    private static void register(MappingBuilder mapping) {
+        try (HarnessProfile.Timer ignored = HarnessProfile.time(HarnessProfile.Category.WIREMOCK)) {
+            stubFor(mapping);
+        }
+    }
+
     public static String getMockUrl() {
         return "http://localhost:" + MOCK_PORT;
     }
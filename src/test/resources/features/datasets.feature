@@ -0,0 +1,18 @@
+# language: ru
+@dataset @regression
+Функционал: Наборы данных из внешних файлов
+  Токены, действия и ожидаемые результаты берутся из CSV или NDJSON, а не из таблиц Примеры:
+  строки читаются потоком и прогоняются параллельно, в сценарий попадает только итог.
+  Выгрузка с прода подставляется через -Ddataset.path вместо файла того же формата
+
+  Контекст:
+    Дано сервер приложения доступен
+    И заголовок X-Api-Key установлен в "A94F2C7D8E1B4A6F9C3D2E5B8A7F1C0D"
+
+  Сценарий: Набор данных в CSV
+    Когда строки набора данных "datasets/regression-sample.csv" отправляются на endpoint
+    Тогда все строки набора данных возвращают ожидаемый результат
+
+  Сценарий: Набор данных в NDJSON
+    Когда строки набора данных "datasets/regression-sample.ndjson" отправляются на endpoint
+    Тогда все строки набора данных возвращают ожидаемый результат
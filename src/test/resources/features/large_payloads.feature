@@ -0,0 +1,26 @@
+# language: ru
+@large_payload @regression
+Функционал: Большие тела запросов
+  Слишком большие запросы должны отклоняться быстро, без полной буферизации и разбора
+
+  Контекст:
+    Дано сервер приложения доступен
+    И заголовок X-Api-Key установлен в "A94F2C7D8E1B4A6F9C3D2E5B8A7F1C0D"
+
+  @negative
+  Сценарий: LOGIN с токеном в несколько мегабайт
+    Когда пользователь отправляет LOGIN с токеном размером 8 МБ
+    Тогда большой запрос отклонен не дольше чем за 3000 мс
+    И память приложения выросла не более чем на 64 МБ
+
+  @negative
+  Сценарий: Очень длинное значение action
+    Когда пользователь отправляет действие длиной 1024 КБ с корректным токеном
+    Тогда большой запрос отклонен не дольше чем за 3000 мс
+    И память приложения выросла не более чем на 64 МБ
+
+  @boundary
+  Сценарий: Тысячи повторов параметра token
+    Когда пользователь отправляет LOGIN с 20000 повторами параметра token
+    Тогда большой запрос обработан без ошибки сервера не дольше чем за 3000 мс
+    И память приложения выросла не более чем на 64 МБ
@@ -0,0 +1,27 @@
+# language: ru
+@restart @regression
+Функционал: Перезапуск приложения
+  После перезапуска (выкладки или падения) приложение должно быстро снова отвечать успешно,
+  а сессии, открытые до перезапуска, — вести себя предсказуемо.
+  Сценарии выполняются только для приложения, запущенного тестами из app.jar.
+
+  Контекст:
+    Дано сервер приложения доступен
+    И заголовок X-Api-Key установлен в "A94F2C7D8E1B4A6F9C3D2E5B8A7F1C0D"
+
+  Сценарий: Восстановление после штатного перезапуска
+    Когда приложение перезапускается
+    Тогда приложение восстанавливается не дольше чем за 30000 мс
+    И задержка приложения устанавливается не дольше чем за 60000 мс
+
+  Сценарий: Сессия, открытая до аварийного перезапуска
+    Дано пользователь успешно аутентифицирован с токеном
+    Когда приложение аварийно перезапускается
+    Тогда приложение восстанавливается не дольше чем за 30000 мс
+    Когда пользователь выполняет ACTION с тем же токеном
+    Тогда система возвращает результат "ERROR"
+    Когда пользователь выполняет LOGIN с корректным токеном
+    Тогда система возвращает результат "OK"
+    Когда пользователь выполняет LOGOUT с тем же токеном
+    И пользователь пытается выполнить ACTION после LOGOUT
+    Тогда система возвращает результат "ERROR"